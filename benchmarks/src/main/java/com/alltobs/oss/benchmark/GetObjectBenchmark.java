@@ -0,0 +1,51 @@
+package com.alltobs.oss.benchmark;
+
+import com.alltobs.oss.model.DownloadOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类 GetObjectBenchmark
+ * </p>
+ * 以流的方式读取整个对象，对比单连接 getObject 和多连接 getObjectParallel
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetObjectBenchmark extends OssBenchmarkSupport {
+
+    @Param({"1024", "1048576", "33554432"})
+    public int size;
+
+    private DownloadOptions parallelOptions;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        startTemplate();
+        seedObject("get/object", randomBytes(size));
+        parallelOptions = DownloadOptions.builder().chunkSize(8 * 1024 * 1024).concurrency(4).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stopTemplate();
+    }
+
+    @Benchmark
+    public long getObject() throws Exception {
+        return drain(ossTemplate.getObject(FOLDER, "get/object"));
+    }
+
+    @Benchmark
+    public long getObjectParallel() throws Exception {
+        return drain(ossTemplate.getObjectParallel(FOLDER, "get/object", parallelOptions));
+    }
+}
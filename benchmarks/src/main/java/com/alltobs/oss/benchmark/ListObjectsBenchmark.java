@@ -0,0 +1,52 @@
+package com.alltobs.oss.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类 ListObjectsBenchmark
+ * </p>
+ * 列出目录，对象数超过 1000 时需要多次分页请求
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListObjectsBenchmark extends OssBenchmarkSupport {
+
+    @Param({"100", "5000"})
+    public int objectCount;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        startTemplate();
+        byte[] data = randomBytes(16);
+        for (int i = 0; i < objectCount; i++) {
+            // 十分之一放在子目录中，用于 listFilesAndFolders 返回目录
+            seedObject(i % 10 == 0 ? "list/dir-" + (i % 100) + "/file-" + i + ".txt" : "list/file-" + i + ".txt", data);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stopTemplate();
+    }
+
+    @Benchmark
+    public List<?> getAllObjectsByPrefix() {
+        return ossTemplate.getAllObjectsByPrefix(FOLDER, "list/");
+    }
+
+    @Benchmark
+    public List<String> listFilesAndFolders() {
+        return ossTemplate.listFilesAndFolders(FOLDER + "/list");
+    }
+}
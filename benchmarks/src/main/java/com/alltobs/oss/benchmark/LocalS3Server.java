@@ -0,0 +1,402 @@
+package com.alltobs.oss.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 类 LocalS3Server
+ * </p>
+ * 基于 JDK HttpServer 的进程内 S3 模拟服务，数据保存在内存中，只实现基准测试用到的接口：
+ * 桶的创建/列出、对象的 PUT/GET(Range)/HEAD/DELETE、ListObjectsV2（前缀、分隔符、分页）、
+ * 批量删除和分片上传。支持 SDK 的 aws-chunked 分块请求体，不校验签名。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class LocalS3Server implements AutoCloseable {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    private final Map<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+
+    private final Map<String, NavigableMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private LocalS3Server(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * 在随机端口启动
+     *
+     * @return 已启动的服务
+     * @throws IOException 端口绑定失败
+     */
+    public static LocalS3Server start() throws IOException {
+        // 响应头和响应体分开写出，不关闭 Nagle 时每个请求会多等待一次延迟确认
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 2), r -> {
+            Thread thread = new Thread(r, "local-s3");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LocalS3Server localS3Server = new LocalS3Server(server, executor);
+        server.createContext("/", localS3Server::handle);
+        server.setExecutor(executor);
+        server.start();
+        return localS3Server;
+    }
+
+    /**
+     * 服务地址
+     *
+     * @return 如 http://127.0.0.1:12345
+     */
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 直接写入对象，用于准备测试数据
+     *
+     * @param bucket 桶
+     * @param key    对象 key
+     * @param data   内容
+     */
+    public void putObject(String bucket, String key, byte[] data) {
+        buckets.computeIfAbsent(bucket, b -> new ConcurrentSkipListMap<>()).put(key, new StoredObject(data, eTag(data), Instant.now()));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String trimmed = path.startsWith("/") ? path.substring(1) : path;
+            int slash = trimmed.indexOf('/');
+            String bucket = slash < 0 ? trimmed : trimmed.substring(0, slash);
+            String key = slash < 0 ? "" : trimmed.substring(slash + 1);
+            String method = exchange.getRequestMethod();
+
+            if (bucket.isEmpty()) {
+                listBuckets(exchange);
+            } else if (key.isEmpty()) {
+                handleBucket(exchange, method, bucket, query);
+            } else {
+                handleObject(exchange, method, bucket, key, query);
+            }
+        } catch (RuntimeException e) {
+            sendXml(exchange, 500, "<Error><Code>InternalError</Code><Message>" + escape(String.valueOf(e.getMessage())) + "</Message></Error>");
+        }
+    }
+
+    private void listBuckets(HttpExchange exchange) throws IOException {
+        StringBuilder xml = new StringBuilder("<ListAllMyBucketsResult><Owner><ID>local</ID></Owner><Buckets>");
+        for (String name : new TreeSet<>(buckets.keySet())) {
+            xml.append("<Bucket><Name>").append(escape(name)).append("</Name><CreationDate>2026-01-01T00:00:00.000Z</CreationDate></Bucket>");
+        }
+        sendXml(exchange, 200, xml.append("</Buckets></ListAllMyBucketsResult>").toString());
+    }
+
+    private void handleBucket(HttpExchange exchange, String method, String bucket, Map<String, String> query) throws IOException {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+        switch (method) {
+            case "PUT" -> {
+                readBody(exchange);
+                buckets.putIfAbsent(bucket, new ConcurrentSkipListMap<>());
+                sendEmpty(exchange, 200);
+            }
+            case "HEAD" -> sendEmpty(exchange, objects == null ? 404 : 200);
+            case "GET" -> {
+                if (objects == null) {
+                    sendXml(exchange, 404, "<Error><Code>NoSuchBucket</Code></Error>");
+                } else {
+                    listObjects(exchange, bucket, objects, query);
+                }
+            }
+            case "POST" -> {
+                // 批量删除，quiet 模式下不返回成功的对象
+                String body = new String(readBody(exchange), StandardCharsets.UTF_8);
+                int index = 0;
+                while ((index = body.indexOf("<Key>", index)) >= 0) {
+                    int end = body.indexOf("</Key>", index);
+                    if (objects != null) {
+                        objects.remove(unescape(body.substring(index + 5, end)));
+                    }
+                    index = end;
+                }
+                sendXml(exchange, 200, "<DeleteResult></DeleteResult>");
+            }
+            case "DELETE" -> {
+                buckets.remove(bucket);
+                sendEmpty(exchange, 204);
+            }
+            default -> sendEmpty(exchange, 405);
+        }
+    }
+
+    private void listObjects(HttpExchange exchange, String bucket, NavigableMap<String, StoredObject> objects, Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.get("delimiter");
+        int maxKeys = Integer.parseInt(query.getOrDefault("max-keys", "1000"));
+        // 分页标记为上一页最后一个 key，以 U+FFFF 结尾表示跳过整个目录，XML 中不能出现该字符，返回时转义
+        String after = query.getOrDefault("continuation-token", query.get("start-after"));
+        if (after != null) {
+            after = after.replace("\\uFFFF", String.valueOf(Character.MAX_VALUE));
+        }
+
+        StringBuilder contents = new StringBuilder();
+        TreeSet<String> commonPrefixes = new TreeSet<>();
+        int count = 0;
+        String last = null;
+        boolean truncated = false;
+        String key = after == null ? objects.ceilingKey(prefix) : objects.higherKey(after);
+        while (key != null && key.startsWith(prefix)) {
+            if (count >= maxKeys) {
+                truncated = true;
+                break;
+            }
+            int index = delimiter == null || delimiter.isEmpty() ? -1 : key.indexOf(delimiter, prefix.length());
+            if (index >= 0) {
+                // 同一目录只返回一次，跳过目录下的其余对象
+                String commonPrefix = key.substring(0, index + delimiter.length());
+                commonPrefixes.add(commonPrefix);
+                last = commonPrefix + Character.MAX_VALUE;
+            } else {
+                StoredObject object = objects.get(key);
+                if (object != null) {
+                    contents.append("<Contents><Key>").append(escape(key)).append("</Key><LastModified>").append(object.lastModified()).append("</LastModified><ETag>&quot;").append(object.eTag()).append("&quot;</ETag><Size>").append(object.data().length).append("</Size><StorageClass>STANDARD</StorageClass></Contents>");
+                }
+                last = key;
+            }
+            count++;
+            key = objects.higherKey(last);
+        }
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult><Name>").append(escape(bucket)).append("</Name><Prefix>").append(escape(prefix)).append("</Prefix><KeyCount>").append(count).append("</KeyCount><MaxKeys>").append(maxKeys).append("</MaxKeys><IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            xml.append("<NextContinuationToken>").append(escape(last.replace(String.valueOf(Character.MAX_VALUE), "\\uFFFF"))).append("</NextContinuationToken>");
+        }
+        xml.append(contents);
+        for (String commonPrefix : commonPrefixes) {
+            xml.append("<CommonPrefixes><Prefix>").append(escape(commonPrefix)).append("</Prefix></CommonPrefixes>");
+        }
+        sendXml(exchange, 200, xml.append("</ListBucketResult>").toString());
+    }
+
+    private void handleObject(HttpExchange exchange, String method, String bucket, String key, Map<String, String> query) throws IOException {
+        String uploadId = query.get("uploadId");
+        switch (method) {
+            case "PUT" -> {
+                byte[] data = readBody(exchange);
+                if (uploadId != null) {
+                    NavigableMap<Integer, byte[]> parts = uploads.get(uploadId);
+                    if (parts == null) {
+                        sendXml(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+                        return;
+                    }
+                    parts.put(Integer.parseInt(query.get("partNumber")), data);
+                    exchange.getResponseHeaders().add("ETag", "\"" + eTag(data) + "\"");
+                } else {
+                    String eTag = eTag(data);
+                    buckets.computeIfAbsent(bucket, b -> new ConcurrentSkipListMap<>()).put(key, new StoredObject(data, eTag, Instant.now()));
+                    exchange.getResponseHeaders().add("ETag", "\"" + eTag + "\"");
+                }
+                sendEmpty(exchange, 200);
+            }
+            case "GET", "HEAD" -> getObject(exchange, method, bucket, key);
+            case "DELETE" -> {
+                if (uploadId != null) {
+                    uploads.remove(uploadId);
+                } else {
+                    NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+                    if (objects != null) {
+                        objects.remove(key);
+                    }
+                }
+                sendEmpty(exchange, 204);
+            }
+            case "POST" -> {
+                readBody(exchange);
+                if (query.containsKey("uploads")) {
+                    String id = UUID.randomUUID().toString();
+                    uploads.put(id, new ConcurrentSkipListMap<>());
+                    sendXml(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + escape(bucket) + "</Bucket><Key>" + escape(key) + "</Key><UploadId>" + id + "</UploadId></InitiateMultipartUploadResult>");
+                } else if (uploadId != null) {
+                    NavigableMap<Integer, byte[]> parts = uploads.remove(uploadId);
+                    if (parts == null) {
+                        sendXml(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+                        return;
+                    }
+                    ByteArrayOutputStream content = new ByteArrayOutputStream();
+                    parts.values().forEach(content::writeBytes);
+                    byte[] data = content.toByteArray();
+                    String eTag = eTag(data) + "-" + parts.size();
+                    buckets.computeIfAbsent(bucket, b -> new ConcurrentSkipListMap<>()).put(key, new StoredObject(data, eTag, Instant.now()));
+                    sendXml(exchange, 200, "<CompleteMultipartUploadResult><Bucket>" + escape(bucket) + "</Bucket><Key>" + escape(key) + "</Key><ETag>&quot;" + eTag + "&quot;</ETag></CompleteMultipartUploadResult>");
+                } else {
+                    sendEmpty(exchange, 400);
+                }
+            }
+            default -> sendEmpty(exchange, 405);
+        }
+    }
+
+    private void getObject(HttpExchange exchange, String method, String bucket, String key) throws IOException {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+        StoredObject object = objects == null ? null : objects.get(key);
+        if (object == null) {
+            if ("HEAD".equals(method)) {
+                sendEmpty(exchange, 404);
+            } else {
+                sendXml(exchange, 404, "<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message></Error>");
+            }
+            return;
+        }
+        byte[] data = object.data();
+        int start = 0;
+        int end = data.length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && range.startsWith("bytes=") && data.length > 0) {
+            String[] bounds = range.substring(6).split("-", 2);
+            start = Integer.parseInt(bounds[0]);
+            end = bounds[1].isEmpty() ? data.length - 1 : Math.min(data.length - 1, Integer.parseInt(bounds[1]));
+            status = 206;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+        }
+        int length = data.length == 0 ? 0 : end - start + 1;
+        exchange.getResponseHeaders().add("ETag", "\"" + object.eTag() + "\"");
+        exchange.getResponseHeaders().add("Last-Modified", HTTP_DATE.format(object.lastModified()));
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        if ("HEAD".equals(method)) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        if (length > 0) {
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(data, start, length);
+            }
+        }
+    }
+
+    /**
+     * 读取请求体，aws-chunked 编码时解码出原始内容
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        boolean chunked = (sha256 != null && sha256.startsWith("STREAMING-")) || (encoding != null && encoding.contains("aws-chunked"));
+        return chunked ? decodeAwsChunked(raw) : raw;
+    }
+
+    private static byte[] decodeAwsChunked(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length);
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int semicolon = header.indexOf(';');
+            int size = Integer.parseInt((semicolon >= 0 ? header.substring(0, semicolon) : header).trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            out.write(raw, position, size);
+            position += size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static String eTag(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&amp;", "&");
+    }
+
+    private record StoredObject(byte[] data, String eTag, Instant lastModified) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.alltobs.oss.benchmark;
+
+import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.service.OssTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * 类 OssBenchmarkSupport
+ * </p>
+ * 基准测试公共部分：启动进程内 S3 模拟服务，并创建以 BASE_BUCKET 模式工作的 OssTemplate
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public abstract class OssBenchmarkSupport {
+
+    /**
+     * BASE_BUCKET
+     */
+    protected static final String BASE_BUCKET = "bench";
+
+    /**
+     * BASE_BUCKET 下的目录，即 OssTemplate 方法中的 bucketName
+     */
+    protected static final String FOLDER = "folder";
+
+    protected LocalS3Server server;
+
+    protected OssTemplate ossTemplate;
+
+    protected void startTemplate() throws Exception {
+        server = LocalS3Server.start();
+        OssProperties properties = new OssProperties();
+        properties.setEndpoint(server.endpoint());
+        properties.setRegion("us-east-1");
+        properties.setAccessKey("benchmark");
+        properties.setSecretKey("benchmark");
+        properties.setBucketName(BASE_BUCKET);
+        properties.setTempMarker(0);
+        configure(properties);
+        ossTemplate = new OssTemplate(properties);
+        ossTemplate.afterPropertiesSet();
+        ossTemplate.createBucket(FOLDER);
+    }
+
+    /**
+     * 子类调整配置
+     */
+    protected void configure(OssProperties properties) {
+    }
+
+    protected void stopTemplate() {
+        if (ossTemplate != null) {
+            ossTemplate.destroy();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * 在模拟服务中直接写入 BASE_BUCKET/FOLDER 下的对象，不经过 OssTemplate
+     */
+    protected void seedObject(String objectName, byte[] data) {
+        server.putObject(BASE_BUCKET, FOLDER + "/" + objectName, data);
+    }
+
+    protected static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    protected static long drain(InputStream stream) throws IOException {
+        try (stream) {
+            return stream.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
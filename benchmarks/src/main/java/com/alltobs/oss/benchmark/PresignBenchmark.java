@@ -0,0 +1,68 @@
+package com.alltobs.oss.benchmark;
+
+import com.alltobs.oss.properties.OssProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 类 PresignBenchmark
+ * </p>
+ * 预签名 URL 生成，只在本地计算签名，不发起请求。presignCache 参数控制是否启用预签名缓存
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PresignBenchmark extends OssBenchmarkSupport {
+
+    @Param({"false", "true"})
+    public boolean presignCache;
+
+    /**
+     * 模拟一个页面上的 100 张缩略图
+     */
+    private List<String> thumbnails;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        startTemplate();
+        thumbnails = IntStream.range(0, 100).mapToObj(i -> "thumbnails/" + i + ".png").toList();
+    }
+
+    @Override
+    protected void configure(OssProperties properties) {
+        properties.getPresignCache().setEnabled(presignCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stopTemplate();
+    }
+
+    @Benchmark
+    public String getObjectURL() {
+        return ossTemplate.getObjectURL(FOLDER, "presign/object.png", 10);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String getObjectURLConcurrent() {
+        return ossTemplate.getObjectURL(FOLDER, "presign/object.png", 10);
+    }
+
+    @Benchmark
+    public Map<String, String> presignGetAll() {
+        return ossTemplate.presignGetAll(FOLDER, thumbnails, Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,60 @@
+package com.alltobs.oss.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 类 PutObjectBenchmark
+ * </p>
+ * 小对象上传 putObject(InputStream, size)
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PutObjectBenchmark extends OssBenchmarkSupport {
+
+    /**
+     * 对象 key 轮换数量，控制模拟服务的内存占用
+     */
+    private static final int KEY_COUNT = 64;
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    private byte[] data;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        startTemplate();
+        data = randomBytes(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stopTemplate();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object putObject() throws Exception {
+        return ossTemplate.putObject(FOLDER, "put/object-" + (sequence.getAndIncrement() % KEY_COUNT), new ByteArrayInputStream(data), size, "application/octet-stream");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object putObjectConcurrent() throws Exception {
+        return ossTemplate.putObject(FOLDER, "put/object-" + (sequence.getAndIncrement() % KEY_COUNT), new ByteArrayInputStream(data), size, "application/octet-stream");
+    }
+}
@@ -0,0 +1,81 @@
+package com.alltobs.oss.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 类 UploadPartBenchmark
+ * </p>
+ * 分片上传 uploadPart，分别从堆内存、堆外缓冲区和文件区域读取分片
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadPartBenchmark extends OssBenchmarkSupport {
+
+    /**
+     * 分片号轮换数量，重复的分片号会覆盖之前的分片，控制模拟服务的内存占用
+     */
+    private static final int PART_COUNT = 16;
+
+    @Param({"5242880", "8388608"})
+    public int partSize;
+
+    private byte[] part;
+
+    private ByteBuffer directPart;
+
+    private Path file;
+
+    private String uploadId;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        startTemplate();
+        part = randomBytes(partSize);
+        directPart = ByteBuffer.allocateDirect(partSize).put(part).flip();
+        file = Files.createTempFile("oss-benchmark", ".part");
+        Files.write(file, part);
+        uploadId = ossTemplate.initiateMultipartUpload(FOLDER, "multipart/object");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ossTemplate.abortMultipartUpload(FOLDER, "multipart/object", uploadId);
+        Files.deleteIfExists(file);
+        stopTemplate();
+    }
+
+    @Benchmark
+    public Object uploadPartFromBytes() {
+        return ossTemplate.uploadPart(FOLDER, "multipart/object", uploadId, nextPartNumber(), part);
+    }
+
+    @Benchmark
+    public Object uploadPartFromDirectBuffer() {
+        return ossTemplate.uploadPart(FOLDER, "multipart/object", uploadId, nextPartNumber(), directPart);
+    }
+
+    @Benchmark
+    public Object uploadPartFromFile() {
+        return ossTemplate.uploadPart(FOLDER, "multipart/object", uploadId, nextPartNumber(), file, 0, partSize);
+    }
+
+    private int nextPartNumber() {
+        return sequence.getAndIncrement() % PART_COUNT + 1;
+    }
+}
@@ -1,11 +1,24 @@
 package com.alltobs.oss;
 
+import com.alltobs.oss.metrics.OssCacheMetrics;
+import com.alltobs.oss.metrics.OssMetricsCustomizer;
 import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.service.OssAsyncTemplate;
 import com.alltobs.oss.service.OssTemplate;
+import com.alltobs.oss.service.OssTemplateRegistry;
+import com.alltobs.oss.support.OssClientCustomizer;
+import com.alltobs.oss.support.OssClientFactory;
+import com.alltobs.oss.support.UploadSessionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
 /**
  * 类 OssAutoConfiguration
@@ -19,14 +32,73 @@ import org.springframework.context.annotation.Bean;
 public class OssAutoConfiguration {
 
     /**
-     * OSS操作模板
+     * S3客户端工厂，同步和异步模板共用其中的连接池，容器中的 OssClientCustomizer 会应用到所有客户端
+     *
+     * @return S3客户端工厂
+     */
+    @Bean
+    @ConditionalOnMissingBean(OssClientFactory.class)
+    @ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "enable", havingValue = "true", matchIfMissing = true)
+    public OssClientFactory ossClientFactory(OssProperties properties, ObjectProvider<OssClientCustomizer> customizers) {
+        return new OssClientFactory(properties, customizers.orderedStream().toList());
+    }
+
+    /**
+     * OSS操作模板，只配置 oss.profiles 而没有配置 oss.endpoint 时不创建
      *
      * @return OSS操作模板
      */
     @Bean
     @ConditionalOnMissingBean(OssTemplate.class)
+    @ConditionalOnExpression("${oss.enable:true} and '${oss.endpoint:}' != ''")
+    public OssTemplate ossTemplate(OssProperties properties, OssClientFactory clientFactory, ObjectProvider<UploadSessionStore> uploadSessionStore) {
+        OssTemplate ossTemplate = new OssTemplate(properties, clientFactory);
+        uploadSessionStore.ifAvailable(ossTemplate::setUploadSessionStore);
+        return ossTemplate;
+    }
+
+    /**
+     * 多存储服务模板注册表，oss.profiles 下的模板在首次使用时创建，与默认模板共用客户端工厂
+     *
+     * @return 模板注册表
+     */
+    @Bean
+    @ConditionalOnMissingBean(OssTemplateRegistry.class)
     @ConditionalOnProperty(prefix = OssProperties.PREFIX, name = "enable", havingValue = "true", matchIfMissing = true)
-    public OssTemplate ossTemplate(OssProperties properties) {
-        return new OssTemplate(properties);
+    public OssTemplateRegistry ossTemplateRegistry(OssProperties properties, OssClientFactory clientFactory, ObjectProvider<OssTemplate> ossTemplate, ObjectProvider<UploadSessionStore> uploadSessionStore) {
+        return new OssTemplateRegistry(properties, clientFactory, ossTemplate.getIfAvailable(), uploadSessionStore.getIfAvailable());
+    }
+
+    /**
+     * OSS异步操作模板，需要配置 oss.async.enable=true
+     *
+     * @return OSS异步操作模板
+     */
+    @Bean
+    @ConditionalOnMissingBean(OssAsyncTemplate.class)
+    @ConditionalOnExpression("${oss.enable:true} and ${oss.async.enable:false}")
+    public OssAsyncTemplate ossAsyncTemplate(OssProperties properties, OssClientFactory clientFactory) {
+        return new OssAsyncTemplate(properties, clientFactory);
+    }
+
+    /**
+     * 引入 micrometer-core 时发布 OSS 指标，容器中没有 MeterRegistry 时使用全局注册表
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnExpression("${oss.enable:true} and ${oss.metrics.enabled:true}")
+    static class OssMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(OssMetricsCustomizer.class)
+        public OssMetricsCustomizer ossMetricsCustomizer(ObjectProvider<MeterRegistry> meterRegistry, OssProperties properties) {
+            return new OssMetricsCustomizer(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), properties);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(OssCacheMetrics.class)
+        public OssCacheMetrics ossCacheMetrics(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<OssTemplate> ossTemplate) {
+            return new OssCacheMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), ossTemplate);
+        }
     }
 }
@@ -0,0 +1,48 @@
+package com.alltobs.oss.metrics;
+
+import com.alltobs.oss.service.OssTemplate;
+import com.alltobs.oss.support.ExpiringCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 类 OssCacheMetrics
+ * </p>
+ * 把 OssTemplate 各本地缓存的命中统计发布到 Micrometer，命名与 Micrometer 自带的缓存指标一致。
+ * <ul>
+ *     <li>oss.cache.gets：查询次数，标签 cache、result（hit/miss）</li>
+ *     <li>oss.cache.evictions：因容量淘汰的条目数</li>
+ *     <li>oss.cache.size：当前条目数</li>
+ * </ul>
+ * cache 标签取值为 bucket、presign、disk、metadata，未启用的缓存各项均为 0。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class OssCacheMetrics {
+
+    private static final String[] CACHES = {"bucket", "presign", "disk", "metadata"};
+
+    public OssCacheMetrics(MeterRegistry registry, ObjectProvider<OssTemplate> template) {
+        for (String cache : CACHES) {
+            Tags tags = Tags.of("cache", cache);
+            FunctionCounter.builder("oss.cache.gets", template, stat(cache, ExpiringCache.CacheStats::hitCount)).tags(tags).tag("result", "hit").register(registry);
+            FunctionCounter.builder("oss.cache.gets", template, stat(cache, ExpiringCache.CacheStats::missCount)).tags(tags).tag("result", "miss").register(registry);
+            FunctionCounter.builder("oss.cache.evictions", template, stat(cache, ExpiringCache.CacheStats::evictionCount)).tags(tags).register(registry);
+            Gauge.builder("oss.cache.size", template, stat(cache, ExpiringCache.CacheStats::size)).tags(tags).register(registry);
+        }
+    }
+
+    private static ToDoubleFunction<ObjectProvider<OssTemplate>> stat(String cache, ToDoubleFunction<ExpiringCache.CacheStats> value) {
+        return provider -> {
+            OssTemplate ossTemplate = provider.getIfAvailable();
+            return ossTemplate == null ? 0 : value.applyAsDouble(ossTemplate.getCacheStats().get(cache));
+        };
+    }
+}
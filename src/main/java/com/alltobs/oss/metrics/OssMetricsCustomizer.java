@@ -0,0 +1,93 @@
+package com.alltobs.oss.metrics;
+
+import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.support.OssClientCustomizer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类 OssMetricsCustomizer
+ * </p>
+ * 把 SDK 的请求耗时、传输字节数、连接池状态和预签名耗时发布到 Micrometer。
+ * <ul>
+ *     <li>oss.client.requests：每个操作的总耗时（含重试），标签 operation、bucket、outcome、status</li>
+ *     <li>oss.client.service.call：每次 HTTP 尝试在服务端的耗时，与 oss.client.requests 对比可区分慢在本地还是存储端</li>
+ *     <li>oss.client.bytes：上传/下载的字节数，标签 operation、bucket、direction</li>
+ *     <li>oss.client.retries：重试次数</li>
+ *     <li>oss.client.pool.*：连接池租用、等待、可用和最大连接数，以及获取连接的耗时</li>
+ *     <li>oss.client.presign：预签名耗时</li>
+ * </ul>
+ * bucket 标签为逻辑 bucket，BASE_BUCKET 模式下为一级目录。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class OssMetricsCustomizer implements OssClientCustomizer {
+
+    static final String NONE = "none";
+
+    private final MeterRegistry registry;
+
+    private final String baseBucket;
+
+    private final OssProperties.Metrics config;
+
+    private final OssMetricsInterceptor interceptor;
+
+    private final OssMetricsPublisher publisher;
+
+    public OssMetricsCustomizer(MeterRegistry registry, OssProperties properties) {
+        this.registry = registry;
+        this.baseBucket = properties.getBucketName();
+        this.config = properties.getMetrics();
+        this.interceptor = new OssMetricsInterceptor(this);
+        this.publisher = new OssMetricsPublisher(this);
+    }
+
+    @Override
+    public void customize(ClientOverrideConfiguration.Builder builder) {
+        builder.addExecutionInterceptor(interceptor).addMetricPublisher(publisher);
+    }
+
+    @Override
+    public void onPresign(String operation, String bucket, String key, long durationNanos, boolean success) {
+        timer("oss.client.presign", Tags.of("operation", operation, "bucket", bucketTag(bucket, key), "outcome", success ? "SUCCESS" : "ERROR")).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    MeterRegistry registry() {
+        return registry;
+    }
+
+    Timer timer(String name, Tags tags) {
+        return Timer.builder(name).tags(tags).publishPercentileHistogram(config.isPercentileHistogram()).register(registry);
+    }
+
+    DistributionSummary bytes(String name, Tags tags) {
+        return DistributionSummary.builder(name).baseUnit("bytes").tags(tags).register(registry);
+    }
+
+    /**
+     * 解析逻辑 bucket 标签，BASE_BUCKET 模式下取 key 的一级目录
+     *
+     * @param bucket 实际 bucket
+     * @param key    对象 key 或列表前缀
+     * @return 标签值
+     */
+    String bucketTag(String bucket, String key) {
+        if (!config.isBucketTag() || bucket == null) {
+            return NONE;
+        }
+        if (StringUtils.hasText(baseBucket) && baseBucket.equals(bucket) && StringUtils.hasText(key)) {
+            int slash = key.indexOf('/');
+            return slash > 0 ? key.substring(0, slash) : bucket;
+        }
+        return bucket;
+    }
+}
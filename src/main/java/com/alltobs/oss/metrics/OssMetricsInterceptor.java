@@ -0,0 +1,76 @@
+package com.alltobs.oss.metrics;
+
+import io.micrometer.core.instrument.Tags;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类 OssMetricsInterceptor
+ * </p>
+ * 记录每个操作的总耗时、结果和传输字节数
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+class OssMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("OssMetricsStartNanos");
+
+    private final OssMetricsCustomizer metrics;
+
+    OssMetricsInterceptor(OssMetricsCustomizer metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        String bucket = bucketTag(context.request());
+        record(executionAttributes, operation, bucket, "SUCCESS", context.httpResponse().statusCode());
+
+        if (context.request() instanceof PutObjectRequest || context.request() instanceof UploadPartRequest) {
+            // 分块签名时 Content-Length 包含签名开销，优先使用原始长度
+            context.httpRequest().firstMatchingHeader("x-amz-decoded-content-length").or(() -> context.httpRequest().firstMatchingHeader("Content-Length")).ifPresent(length -> metrics.bytes("oss.client.bytes", Tags.of("operation", operation, "bucket", bucket, "direction", "upload")).record(Long.parseLong(length)));
+        } else if (context.response() instanceof GetObjectResponse response && response.contentLength() != null) {
+            metrics.bytes("oss.client.bytes", Tags.of("operation", operation, "bucket", bucket, "direction", "download")).record(response.contentLength());
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        int status = context.exception() instanceof SdkServiceException serviceException ? serviceException.statusCode() : 0;
+        String outcome = status >= 500 ? "SERVER_ERROR" : status >= 400 ? "CLIENT_ERROR" : "UNKNOWN";
+        record(executionAttributes, operation, bucketTag(context.request()), outcome, status);
+    }
+
+    private void record(ExecutionAttributes executionAttributes, String operation, String bucket, String outcome, int status) {
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        if (start == null || operation == null) {
+            return;
+        }
+        metrics.timer("oss.client.requests", Tags.of("operation", operation, "bucket", bucket, "outcome", outcome, "status", status > 0 ? String.valueOf(status) : "NONE")).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private String bucketTag(SdkRequest request) {
+        String bucket = request.getValueForField("Bucket", String.class).orElse(null);
+        String key = request.getValueForField("Key", String.class).or(() -> request.getValueForField("Prefix", String.class)).orElse(null);
+        return metrics.bucketTag(bucket, key);
+    }
+}
@@ -0,0 +1,94 @@
+package com.alltobs.oss.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 类 OssMetricsPublisher
+ * </p>
+ * 接收 SDK 每次请求的指标集合，发布服务端耗时、重试次数和连接池状态。
+ * 连接池指标是请求时的快照，以最近一次请求的值作为 Gauge 的当前值
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+class OssMetricsPublisher implements MetricPublisher {
+
+    private final OssMetricsCustomizer metrics;
+
+    /**
+     * 连接池状态，key 为 HTTP 客户端名称 + 指标名称。Gauge 只持有弱引用，这里保持强引用
+     */
+    private final Map<String, AtomicLong> poolGauges = new ConcurrentHashMap<>();
+
+    OssMetricsPublisher(OssMetricsCustomizer metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void publish(MetricCollection apiCall) {
+        String operation = first(apiCall, CoreMetric.OPERATION_NAME);
+        if (operation == null) {
+            return;
+        }
+        Integer retries = first(apiCall, CoreMetric.RETRY_COUNT);
+        if (retries != null && retries > 0) {
+            Counter.builder("oss.client.retries").tag("operation", operation).register(metrics.registry()).increment(retries);
+        }
+        for (MetricCollection attempt : apiCall.children()) {
+            Duration serviceCall = first(attempt, CoreMetric.SERVICE_CALL_DURATION);
+            if (serviceCall != null) {
+                metrics.timer("oss.client.service.call", Tags.of("operation", operation)).record(serviceCall);
+            }
+            attempt.children().forEach(this::publishPool);
+        }
+    }
+
+    private void publishPool(MetricCollection httpClient) {
+        String client = first(httpClient, HttpMetric.HTTP_CLIENT_NAME);
+        if (client == null) {
+            return;
+        }
+        updatePool(client, "oss.client.pool.leased", first(httpClient, HttpMetric.LEASED_CONCURRENCY));
+        updatePool(client, "oss.client.pool.pending", first(httpClient, HttpMetric.PENDING_CONCURRENCY_ACQUIRES));
+        updatePool(client, "oss.client.pool.available", first(httpClient, HttpMetric.AVAILABLE_CONCURRENCY));
+        updatePool(client, "oss.client.pool.max", first(httpClient, HttpMetric.MAX_CONCURRENCY));
+        Duration acquire = first(httpClient, HttpMetric.CONCURRENCY_ACQUIRE_DURATION);
+        if (acquire != null) {
+            metrics.timer("oss.client.pool.acquire", Tags.of("client", client)).record(acquire);
+        }
+    }
+
+    private void updatePool(String client, String name, Integer value) {
+        if (value == null) {
+            return;
+        }
+        poolGauges.computeIfAbsent(client + ":" + name, k -> {
+            AtomicLong holder = new AtomicLong();
+            Gauge.builder(name, holder, AtomicLong::get).tag("client", client).register(metrics.registry());
+            return holder;
+        }).set(value);
+    }
+
+    private static <T> T first(MetricCollection collection, SdkMetric<T> metric) {
+        List<T> values = collection.metricValues(metric);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public void close() {
+    }
+}
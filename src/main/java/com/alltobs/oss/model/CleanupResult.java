@@ -0,0 +1,48 @@
+package com.alltobs.oss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 类 CleanupResult
+ * </p>
+ * 过期对象清理结果
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CleanupResult {
+
+    /**
+     * 扫描的对象数
+     */
+    private long scannedCount;
+
+    /**
+     * 已过期的对象数
+     */
+    private long expiredCount;
+
+    /**
+     * 成功删除的对象数
+     */
+    private long deletedCount;
+
+    /**
+     * 读取元数据或删除失败的对象，key 为实际对象 key，value 为错误信息
+     */
+    private Map<String, String> errors;
+
+    /**
+     * 耗时
+     */
+    private Duration elapsed;
+}
@@ -0,0 +1,57 @@
+package com.alltobs.oss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 类 CopyResult
+ * </p>
+ * 批量复制或移动结果
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CopyResult {
+
+    /**
+     * 成功复制的对象数
+     */
+    private long copiedCount;
+
+    /**
+     * 成功复制的字节数
+     */
+    private long copiedBytes;
+
+    /**
+     * 移动时成功删除的源对象数，复制时为 0
+     */
+    private long deletedCount;
+
+    /**
+     * 复制或删除失败的对象，key 为实际源对象 key，value 为错误信息
+     */
+    private Map<String, String> errors;
+
+    /**
+     * 耗时
+     */
+    private Duration elapsed;
+
+    /**
+     * 是否全部成功
+     *
+     * @return 是否全部成功
+     */
+    public boolean isSuccessful() {
+        return errors == null || errors.isEmpty();
+    }
+}
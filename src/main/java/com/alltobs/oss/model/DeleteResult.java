@@ -0,0 +1,41 @@
+package com.alltobs.oss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 类 DeleteResult
+ * </p>
+ * 批量删除结果
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteResult {
+
+    /**
+     * 成功删除的对象数
+     */
+    private long deletedCount;
+
+    /**
+     * 删除失败的对象，key 为实际对象 key，value 为错误信息
+     */
+    private Map<String, String> errors;
+
+    /**
+     * 是否全部删除成功
+     *
+     * @return 是否全部成功
+     */
+    public boolean isSuccessful() {
+        return errors == null || errors.isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package com.alltobs.oss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 类 DownloadOptions
+ * </p>
+ * 多连接分段下载的参数，未设置的项使用 oss.download 下的配置
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownloadOptions {
+
+    /**
+     * 每段大小，单位字节，小于等于0时使用 oss.download.chunk-size
+     */
+    private long chunkSize;
+
+    /**
+     * 同时下载的段数，小于等于0时使用 oss.download.concurrency
+     */
+    private int concurrency;
+
+    /**
+     * 下载到文件时，是否根据进度文件继续之前未完成的下载
+     */
+    @Builder.Default
+    private boolean resume = true;
+
+    /**
+     * 进度回调
+     */
+    private TransferProgressListener progressListener;
+
+    /**
+     * 使用默认参数
+     *
+     * @return 默认参数
+     */
+    public static DownloadOptions defaults() {
+        return DownloadOptions.builder().build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.alltobs.oss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 类 DownloadResult
+ * </p>
+ * 分段下载结果
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownloadResult {
+
+    /**
+     * 实际存储的 bucket
+     */
+    private String bucket;
+
+    /**
+     * 实际存储的对象 key
+     */
+    private String key;
+
+    /**
+     * 对象 ETag
+     */
+    private String eTag;
+
+    /**
+     * 对象大小
+     */
+    private long size;
+
+    /**
+     * 分段数
+     */
+    private int chunkCount;
+
+    /**
+     * 续传时跳过的已完成分段数
+     */
+    private int resumedChunks;
+}
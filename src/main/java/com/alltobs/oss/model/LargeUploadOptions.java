@@ -0,0 +1,70 @@
+package com.alltobs.oss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 类 LargeUploadOptions
+ * </p>
+ * 大文件并发分片上传的参数，未设置的项使用 oss.multipart 下的配置
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LargeUploadOptions {
+
+    /**
+     * 文件类型
+     */
+    @Builder.Default
+    private String contentType = "application/octet-stream";
+
+    /**
+     * 分片大小，单位字节，小于等于0时根据文件大小自动计算
+     */
+    private long partSize;
+
+    /**
+     * 同时上传的分片数，小于等于0时使用 oss.multipart.concurrency
+     */
+    private int concurrency;
+
+    /**
+     * 预计的数据大小，仅用于 InputStream 上传时计算分片大小，未知时为 -1
+     */
+    @Builder.Default
+    private long contentLength = -1;
+
+    /**
+     * 对象的 Expires 头，为 null 时不设置
+     */
+    private Date expiresAt;
+
+    /**
+     * 对象标签，URL 查询字符串格式，如 a=1&amp;b=2，为 null 时不设置
+     */
+    private String tagging;
+
+    /**
+     * 进度回调
+     */
+    private TransferProgressListener progressListener;
+
+    /**
+     * 使用默认参数
+     *
+     * @return 默认参数
+     */
+    public static LargeUploadOptions defaults() {
+        return LargeUploadOptions.builder().build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.alltobs.oss.model;
+
+/**
+ * 接口 TransferProgressListener
+ * </p>
+ * 传输进度回调，每个分片完成后调用一次，可能在不同的线程中被调用
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@FunctionalInterface
+public interface TransferProgressListener {
+
+    /**
+     * 传输进度
+     *
+     * @param transferredBytes 已传输的字节数
+     * @param totalBytes       总字节数，未知时为 -1
+     */
+    void onProgress(long transferredBytes, long totalBytes);
+}
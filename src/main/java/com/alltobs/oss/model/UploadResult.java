@@ -0,0 +1,50 @@
+package com.alltobs.oss.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 类 UploadResult
+ * </p>
+ * 上传结果，数据较小时为普通上传，partCount 为 0
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadResult {
+
+    /**
+     * 实际存储的 bucket
+     */
+    private String bucket;
+
+    /**
+     * 实际存储的对象 key
+     */
+    private String key;
+
+    /**
+     * 对象 ETag
+     */
+    private String eTag;
+
+    /**
+     * 版本ID，未开启版本控制时为 null
+     */
+    private String versionId;
+
+    /**
+     * 上传的字节数
+     */
+    private long size;
+
+    /**
+     * 分片数
+     */
+    private int partCount;
+}
@@ -0,0 +1,123 @@
+package com.alltobs.oss.model;
+
+import lombok.Getter;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 类 UploadSession
+ * </p>
+ * 一次可续传的分片上传，记录上传ID、分片大小和已完成分片的 ETag，续传时不需要再调用 listParts
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Getter
+public class UploadSession {
+
+    /**
+     * 上传ID
+     */
+    private final String uploadId;
+
+    /**
+     * bucket名称
+     */
+    private final String bucketName;
+
+    /**
+     * 对象名称
+     */
+    private final String objectName;
+
+    /**
+     * 文件类型
+     */
+    private final String contentType;
+
+    /**
+     * 分片大小，单位字节
+     */
+    private final long partSize;
+
+    /**
+     * 数据总大小，未知时为 -1
+     */
+    private final long totalSize;
+
+    /**
+     * 数据源标识，例如文件大小和修改时间，用于判断续传的数据是否变化，可以为 null
+     */
+    private final String fingerprint;
+
+    /**
+     * 初始化时间
+     */
+    private final Instant createdAt;
+
+    /**
+     * 所属的 oss.profiles 名称，默认模板为 null。共用同一个会话存储时，各模板只处理自己的会话
+     */
+    private final String profile;
+
+    private final Map<Integer, String> parts = new ConcurrentSkipListMap<>();
+
+    public UploadSession(String uploadId, String bucketName, String objectName, String contentType, long partSize, long totalSize, String fingerprint, Instant createdAt) {
+        this(uploadId, bucketName, objectName, contentType, partSize, totalSize, fingerprint, createdAt, null);
+    }
+
+    public UploadSession(String uploadId, String bucketName, String objectName, String contentType, long partSize, long totalSize, String fingerprint, Instant createdAt, String profile) {
+        this.uploadId = uploadId;
+        this.bucketName = bucketName;
+        this.objectName = objectName;
+        this.contentType = contentType;
+        this.partSize = partSize;
+        this.totalSize = totalSize;
+        this.fingerprint = fingerprint;
+        this.createdAt = createdAt;
+        this.profile = profile;
+    }
+
+    /**
+     * 记录已完成的分片
+     *
+     * @param partNumber 分片编号
+     * @param eTag       分片 ETag
+     */
+    public void partCompleted(int partNumber, String eTag) {
+        parts.put(partNumber, eTag);
+    }
+
+    /**
+     * 分片是否已上传
+     *
+     * @param partNumber 分片编号
+     * @return 是否已上传
+     */
+    public boolean isPartCompleted(int partNumber) {
+        return parts.containsKey(partNumber);
+    }
+
+    /**
+     * 已完成的分片，按分片编号排序
+     *
+     * @return 已完成的分片
+     */
+    public List<CompletedPart> getCompletedParts() {
+        return parts.entrySet().stream().map(e -> CompletedPart.builder().partNumber(e.getKey()).eTag(e.getValue()).build()).toList();
+    }
+
+    /**
+     * 分片数，总大小未知时为 -1
+     *
+     * @return 分片数
+     */
+    public int getPartCount() {
+        return totalSize < 0 ? -1 : (int) Math.max(1, (totalSize + partSize - 1) / partSize);
+    }
+}
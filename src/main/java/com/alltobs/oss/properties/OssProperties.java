@@ -3,6 +3,10 @@ package com.alltobs.oss.properties;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -87,4 +91,728 @@ public class OssProperties {
      */
     private Map<String, Integer> expiringBuckets;
 
+    /**
+     * 后台任务线程数，用于列表预取、并发分片等操作，空闲时线程会被回收
+     */
+    private int workerThreads = 16;
+
+    /**
+     * 上传前是否检查桶（或 BASE_BUCKET 下的目录）是否存在，不存在时自动创建
+     * 确认目标已存在时可关闭，省去每次上传前的检查请求
+     */
+    private boolean checkBucketExist = true;
+
+    /**
+     * 桶/目录存在性缓存配置
+     */
+    private BucketCache bucketCache = new BucketCache();
+
+    /**
+     * 异步客户端配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 大文件分片上传配置
+     */
+    private Multipart multipart = new Multipart();
+
+    /**
+     * 多连接分段下载配置
+     */
+    private Download download = new Download();
+
+    /**
+     * HTTP 连接池配置，同时作用于同步和异步客户端
+     */
+    private Http http = new Http();
+
+    /**
+     * 批量操作配置（批量删除、过期对象清理）
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Micrometer 指标配置，引入 micrometer-core 时生效
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 预签名 URL 缓存配置
+     */
+    private PresignCache presignCache = new PresignCache();
+
+    /**
+     * 本地磁盘读缓存配置
+     */
+    private DiskCache diskCache = new DiskCache();
+
+    /**
+     * 对象元数据（getObjectInfo、getObjectTags、getObjectAcl）缓存配置
+     */
+    private MetadataCache metadataCache = new MetadataCache();
+
+    /**
+     * 可续传分片上传会话配置
+     */
+    private UploadSession uploadSession = new UploadSession();
+
+    /**
+     * 分片缓冲区池配置
+     */
+    private BufferPool bufferPool = new BufferPool();
+
+    /**
+     * 服务端复制配置
+     */
+    private Copy copy = new Copy();
+
+    /**
+     * 并发读请求合并配置
+     */
+    private SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * 客户端限流配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 自适应并发控制配置
+     */
+    private AdaptiveConcurrency adaptiveConcurrency = new AdaptiveConcurrency();
+
+    /**
+     * 命名的连接配置，key 为名称，通过 OssTemplateRegistry 获取对应的模板。
+     * 未配置的连接项使用外层配置，缓存、分片、线程等其他配置与外层相同
+     */
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    /**
+     * 只读副本配置
+     */
+    private ReadReplicas readReplicas = new ReadReplicas();
+
+    /**
+     * 默认存储桶和过期目录的初始化配置
+     */
+    private Provisioning provisioning = new Provisioning();
+
+    /**
+     * 数据完整性校验配置
+     */
+    private Checksum checksum = new Checksum();
+
+    /**
+     * 桶/目录存在性缓存配置
+     */
+    @Data
+    public static class BucketCache {
+
+        /**
+         * 是否启用缓存
+         */
+        private boolean enabled = true;
+
+        /**
+         * 存在结果的缓存时间
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * 不存在结果的缓存时间，为0时不缓存不存在的结果
+         */
+        private Duration negativeTtl = Duration.ofSeconds(10);
+
+        /**
+         * 最大缓存条目数
+         */
+        private int maxSize = 10000;
+    }
+
+    /**
+     * 异步客户端配置
+     */
+    @Data
+    public static class Async {
+
+        /**
+         * 是否创建 OssAsyncTemplate，默认为：false
+         */
+        private boolean enable = false;
+
+        /**
+         * 是否使用基于 CRT 的 S3AsyncClient，需要引入 aws-crt 依赖
+         */
+        private boolean crt = false;
+
+        /**
+         * 最大并发请求数
+         */
+        private int maxConcurrency = 64;
+
+        /**
+         * CRT 客户端目标吞吐量，单位 Gbps
+         */
+        private double targetThroughputInGbps = 10.0;
+
+        /**
+         * CRT 客户端自动分片的最小分片大小，单位字节
+         */
+        private long minimumPartSize = 8 * 1024 * 1024;
+    }
+
+    /**
+     * 大文件分片上传配置
+     */
+    @Data
+    public static class Multipart {
+
+        /**
+         * 最小分片大小，单位字节，不能小于 5MB；文件过大时会自动增大以保证不超过 10000 个分片
+         */
+        private long minPartSize = 8 * 1024 * 1024;
+
+        /**
+         * 单个文件同时上传的分片数
+         */
+        private int concurrency = 4;
+    }
+
+    /**
+     * 多连接分段下载配置
+     */
+    @Data
+    public static class Download {
+
+        /**
+         * 每段大小，单位字节
+         */
+        private long chunkSize = 8 * 1024 * 1024;
+
+        /**
+         * 单个文件同时下载的段数
+         */
+        private int concurrency = 4;
+    }
+
+    /**
+     * 批量操作配置
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * 过期对象清理时同时进行的 HEAD 请求数
+         */
+        private int headConcurrency = 16;
+
+        /**
+         * 每个 DeleteObjects 请求删除的对象数，最大 1000
+         */
+        private int deleteBatchSize = 1000;
+
+        /**
+         * 同时进行的 DeleteObjects 请求数
+         */
+        private int deleteConcurrency = 4;
+    }
+
+    /**
+     * HTTP 连接池配置
+     */
+    @Data
+    public static class Http {
+
+        /**
+         * 同步客户端使用的 HTTP 实现，默认为 Apache HttpClient
+         */
+        private HttpClientType clientType = HttpClientType.APACHE;
+
+        /**
+         * 最大连接数（Apache），异步客户端使用 oss.async.max-concurrency
+         */
+        private int maxConnections = 50;
+
+        /**
+         * 建立连接超时时间
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * 读写数据超时时间
+         */
+        private Duration socketTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 从连接池获取连接的超时时间
+         */
+        private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 连接最大空闲时间，超过后被回收
+         */
+        private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+
+        /**
+         * 连接最大存活时间，为0时不限制
+         */
+        private Duration connectionTimeToLive = Duration.ZERO;
+
+        /**
+         * 是否开启 TCP keep-alive
+         */
+        private boolean tcpKeepAlive = false;
+
+        /**
+         * 是否启用后台线程回收空闲连接
+         */
+        private boolean useIdleConnectionReaper = true;
+    }
+
+    /**
+     * 指标配置
+     */
+    @Data
+    public static class Metrics {
+
+        /**
+         * 是否启用指标
+         */
+        private boolean enabled = true;
+
+        /**
+         * 是否按逻辑 bucket（BASE_BUCKET 模式下为一级目录）打标签，目录很多时可关闭以控制标签数量
+         */
+        private boolean bucketTag = true;
+
+        /**
+         * 是否发布百分位直方图
+         */
+        private boolean percentileHistogram = false;
+    }
+
+    /**
+     * 预签名 URL 缓存配置
+     */
+    @Data
+    public static class PresignCache {
+
+        /**
+         * 是否启用，启用后相同对象、相同有效期的预签名请求在缓存期内返回同一个 URL
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最大缓存条目数
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 返回的 URL 至少还剩余的有效时间，有效期不超过该值的请求不缓存
+         */
+        private Duration minRemainingValidity = Duration.ofMinutes(1);
+    }
+
+    /**
+     * 本地磁盘读缓存配置
+     */
+    @Data
+    public static class DiskCache {
+
+        /**
+         * 是否启用，启用后 getObject 优先读取本地缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存目录
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/alltobs-oss-cache";
+
+        /**
+         * 缓存总大小上限，单位字节，超过后淘汰最久未访问的对象
+         */
+        private long maxSize = 1024L * 1024 * 1024;
+
+        /**
+         * 单个对象大小上限，单位字节，更大的对象不缓存
+         */
+        private long maxObjectSize = 16 * 1024 * 1024;
+
+        /**
+         * 距离上次校验不超过该时间时直接读取本地文件，不发起条件请求。0 表示每次读取都用 ETag 校验
+         */
+        private Duration revalidateAfter = Duration.ZERO;
+    }
+
+    /**
+     * 对象元数据缓存配置
+     */
+    @Data
+    public static class MetadataCache {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存时间，其他客户端的修改最多延迟该时间可见
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * 最大缓存条目数
+         */
+        private int maxSize = 10000;
+    }
+
+    /**
+     * 可续传分片上传会话配置
+     */
+    @Data
+    public static class UploadSession {
+
+        /**
+         * 是否启用，启用后可通过 OssTemplate#getUploadSessionManager 使用
+         */
+        private boolean enabled = false;
+
+        /**
+         * 默认会话存储的日志目录，同一目录只能由一个进程使用
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/alltobs-oss-uploads";
+
+        /**
+         * 初始化超过该时间仍未完成的分片上传视为已放弃，清理时会被终止
+         */
+        private Duration abandonAfter = Duration.ofHours(24);
+
+        /**
+         * 自动清理已放弃上传的间隔，0 表示不自动清理
+         */
+        private Duration cleanupInterval = Duration.ZERO;
+    }
+
+    /**
+     * 分片缓冲区池配置
+     */
+    @Data
+    public static class BufferPool {
+
+        /**
+         * 是否使用堆外内存，总量受 -XX:MaxDirectMemorySize 限制
+         */
+        private boolean direct = true;
+
+        /**
+         * 空闲缓冲区总大小上限，单位字节，超过后归还的缓冲区直接释放
+         */
+        private long maxPooledBytes = 256L * 1024 * 1024;
+
+        /**
+         * 租用中的堆外缓冲区总大小上限，单位字节，超过后新租用的缓冲区使用堆内存
+         */
+        private long maxLeasedBytes = 512L * 1024 * 1024;
+
+        /**
+         * 是否检测未归还的缓冲区，开启 DEBUG 日志时同时记录租用位置
+         */
+        private boolean leakDetection = true;
+    }
+
+    /**
+     * 服务端复制配置
+     */
+    @Data
+    public static class Copy {
+
+        /**
+         * 超过该大小的对象使用分片复制（UploadPartCopy），单个 CopyObject 最大只支持 5GB
+         */
+        private long multipartThreshold = 256L * 1024 * 1024;
+
+        /**
+         * 分片复制的分片大小，单位字节，对象过大时自动增大以保证不超过 10000 个分片
+         */
+        private long partSize = 64L * 1024 * 1024;
+
+        /**
+         * 同时执行的复制请求数（CopyObject 和 UploadPartCopy 合计）
+         */
+        private int concurrency = 16;
+    }
+
+    /**
+     * 并发读请求合并配置
+     */
+    @Data
+    public static class SingleFlight {
+
+        /**
+         * 是否启用，启用后同一对象并发的 getObjectInfo、getObjectTags、getObjectAcl 和小文件 getObject 只请求一次
+         */
+        private boolean enabled = false;
+
+        /**
+         * getObject 合并时在内存中共享的最大文件大小，单位字节，更大的文件各自请求
+         */
+        private long maxBodySize = 1024 * 1024;
+    }
+
+    /**
+     * 客户端限流配置，令牌桶算法，同步客户端的每次重试也会消耗令牌
+     */
+    @Data
+    public static class RateLimit {
+
+        /**
+         * 所有请求共用的每秒请求数上限，0 表示不限制
+         */
+        private double permitsPerSecond = 0;
+
+        /**
+         * 允许的突发请求数，0 表示与每秒请求数相同
+         */
+        private int burst = 0;
+
+        /**
+         * 等待令牌的最长时间，超过时请求失败
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+
+        /**
+         * 按 bucket 和前缀单独限流，与全局限流同时生效，多条规则匹配时使用前缀最长的一条
+         */
+        private List<Rule> rules = new ArrayList<>();
+
+        @Data
+        public static class Rule {
+
+            /**
+             * 实际存储的 bucket，BASE_BUCKET 模式下为基础 bucket
+             */
+            private String bucket;
+
+            /**
+             * 对象 key 前缀，BASE_BUCKET 模式下逻辑 bucket 为一级目录，如 avatar/
+             */
+            private String prefix = "";
+
+            /**
+             * 每秒请求数上限
+             */
+            private double permitsPerSecond;
+
+            /**
+             * 允许的突发请求数，0 表示与每秒请求数相同
+             */
+            private int burst = 0;
+        }
+    }
+
+    /**
+     * 自适应并发控制配置，AIMD 算法：请求成功时缓慢增加并发上限，存储服务返回 503 SlowDown 或 429 时按比例降低
+     */
+    @Data
+    public static class AdaptiveConcurrency {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = false;
+
+        /**
+         * 初始并发上限
+         */
+        private int initialLimit = 64;
+
+        /**
+         * 最小并发上限
+         */
+        private int minLimit = 4;
+
+        /**
+         * 最大并发上限
+         */
+        private int maxLimit = 1024;
+
+        /**
+         * 被限流时并发上限乘以的比例
+         */
+        private double backoffRatio = 0.7;
+
+        /**
+         * 等待并发许可的最长时间，超过时请求失败
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 命名的连接配置，为 null 的项使用外层配置
+     */
+    @Data
+    public static class Profile {
+
+        /**
+         * 对象存储服务的URL
+         */
+        private String endpoint;
+
+        /**
+         * 预览地址
+         */
+        private String previewUrl;
+
+        /**
+         * 自定义域名
+         */
+        private String customDomain;
+
+        /**
+         * 是否使用 path-style 访问
+         */
+        private Boolean pathStyleAccess;
+
+        /**
+         * 区域
+         */
+        private String region;
+
+        /**
+         * Access key
+         */
+        private String accessKey;
+
+        /**
+         * Secret key
+         */
+        private String secretKey;
+
+        /**
+         * 默认的存储桶名称
+         */
+        private String bucketName;
+
+        /**
+         * 子 Bucket 及其存储天数
+         */
+        private Map<String, Integer> expiringBuckets;
+
+        /**
+         * 该存储服务的只读副本，未配置时不使用副本，外层的副本属于默认存储服务
+         */
+        private ReadReplicas readReplicas;
+
+        /**
+         * 路由到该配置的 bucket，BASE_BUCKET 模式下为逻辑 bucket
+         */
+        private List<String> buckets = new ArrayList<>();
+
+        /**
+         * 路由到该配置的租户，名称本身也作为租户
+         */
+        private List<String> tenants = new ArrayList<>();
+    }
+
+    /**
+     * 只读副本配置。getObject 和 getObjectInfo 按延迟和错误率的 EWMA 选择最快的健康副本（包括主 endpoint），
+     * 副本失败或返回 4xx（如复制延迟导致的 404）时回退到主 endpoint，写操作始终使用主 endpoint
+     */
+    @Data
+    public static class ReadReplicas {
+
+        /**
+         * 副本的 endpoint，与主 endpoint 使用相同的密钥和区域，为空时不启用
+         */
+        private List<String> endpoints = new ArrayList<>();
+
+        /**
+         * 延迟和错误率 EWMA 的平滑系数，越大越快反映最新情况
+         */
+        private double ewmaAlpha = 0.2;
+
+        /**
+         * 错误率超过该值的副本视为不健康，排在健康副本之后
+         */
+        private double unhealthyErrorRate = 0.5;
+
+        /**
+         * 不健康的副本每隔多久优先放行一个请求，探测是否恢复
+         */
+        private Duration probeInterval = Duration.ofSeconds(30);
+
+        /**
+         * 是否启用对冲请求：请求超过所选副本的 p95 延迟仍未返回时，向次优副本再发一个请求，使用先返回的结果
+         */
+        private boolean hedge = false;
+
+        /**
+         * 对冲请求的最小等待时间
+         */
+        private Duration hedgeMinDelay = Duration.ofMillis(10);
+
+        /**
+         * 同时进行的对冲请求上限，达到上限时不再发起对冲请求
+         */
+        private int hedgeMaxConcurrency = 16;
+    }
+
+    /**
+     * 默认存储桶和过期目录的初始化配置
+     */
+    @Data
+    public static class Provisioning {
+
+        /**
+         * 是否在后台创建默认存储桶、过期目录和生命周期规则，启动时不访问存储服务，失败时自动重试
+         */
+        private boolean async = false;
+
+        /**
+         * 第一次重试的等待时间，之后每次翻倍
+         */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * 最长重试间隔
+         */
+        private Duration maxBackoff = Duration.ofMinutes(1);
+
+        /**
+         * 上传等操作等待所需存储桶初始化完成的最长时间，超时后直接执行
+         */
+        private Duration awaitTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Checksum {
+
+        /**
+         * 上传时计算的校验和算法，可选 CRC32、CRC32C、SHA1、SHA256，为空时不计算。分片上传的每个分片单独计算
+         */
+        private String algorithm;
+
+        /**
+         * 下载整个对象时是否校验存储服务返回的校验和，只有上传时带有校验和且不是分片上传的对象会被校验
+         */
+        private boolean validateOnDownload = false;
+    }
+
+    /**
+     * 同步客户端 HTTP 实现
+     */
+    public enum HttpClientType {
+
+        /**
+         * Apache HttpClient，支持连接池配置
+         */
+        APACHE,
+
+        /**
+         * JDK URLConnection，启动快、依赖少，需要引入 software.amazon.awssdk:url-connection-client
+         */
+        URL_CONNECTION
+    }
 }
@@ -0,0 +1,156 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.model.DeleteResult;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 类 BatchDeleter
+ * </p>
+ * 把逐个加入的对象 key 攒成批次，使用 DeleteObjects 一次删除最多 1000 个对象，
+ * 多个批次在线程池中并发执行，同时执行的批次数受信号量限制。
+ * 单个 key 的删除失败会被收集起来，不会中断其他批次。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+class BatchDeleter {
+
+    /**
+     * DeleteObjects 单次最多删除 1000 个对象
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final S3Client s3Client;
+
+    private final String bucket;
+
+    private final ExecutorService executor;
+
+    private final int batchSize;
+
+    private final int concurrency;
+
+    private final Semaphore permits;
+
+    private final AtomicLong deletedCount = new AtomicLong();
+
+    private final Map<String, String> errors = new ConcurrentHashMap<>();
+
+    private List<ObjectIdentifier> buffer;
+
+    /**
+     * 创建批量删除器
+     *
+     * @param s3Client    S3客户端
+     * @param bucket      实际存储的 bucket
+     * @param executor    执行批次的线程池
+     * @param batchSize   每批对象数，不超过 1000
+     * @param concurrency 同时执行的批次数
+     */
+    BatchDeleter(S3Client s3Client, String bucket, ExecutorService executor, int batchSize, int concurrency) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.executor = executor;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        this.concurrency = Math.max(1, concurrency);
+        this.permits = new Semaphore(this.concurrency);
+        this.buffer = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * 加入一个待删除的对象，攒满一批时提交删除，同时执行的批次达到上限时阻塞。可以在多个线程中调用
+     *
+     * @param key 实际对象 key
+     * @throws InterruptedIOException 等待时被中断
+     */
+    void add(String key) throws InterruptedIOException {
+        List<ObjectIdentifier> batch = null;
+        synchronized (this) {
+            buffer.add(ObjectIdentifier.builder().key(key).build());
+            if (buffer.size() >= batchSize) {
+                batch = buffer;
+                buffer = new ArrayList<>(batchSize);
+            }
+        }
+        if (batch != null) {
+            submit(batch);
+        }
+    }
+
+    /**
+     * 提交剩余的对象并等待所有批次完成
+     *
+     * @return 删除结果
+     * @throws InterruptedIOException 等待时被中断
+     */
+    DeleteResult finish() throws InterruptedIOException {
+        List<ObjectIdentifier> batch;
+        synchronized (this) {
+            batch = buffer;
+            buffer = new ArrayList<>(batchSize);
+        }
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+        try {
+            permits.acquire(concurrency);
+            permits.release(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量删除被中断");
+        }
+        return new DeleteResult(deletedCount.get(), Map.copyOf(errors));
+    }
+
+    private void submit(List<ObjectIdentifier> batch) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量删除被中断");
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    deleteBatch(batch);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void deleteBatch(List<ObjectIdentifier> batch) {
+        try {
+            // quiet 模式下只返回失败的对象
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder().bucket(bucket).delete(Delete.builder().objects(batch).quiet(true).build()).build());
+            for (S3Error error : response.errors()) {
+                errors.put(error.key(), error.code() + ": " + error.message());
+            }
+            deletedCount.addAndGet(batch.size() - response.errors().size());
+        } catch (RuntimeException e) {
+            log.warn("批量删除失败 bucket={} 数量={}：{}", bucket, batch.size(), e.getMessage());
+            batch.forEach(identifier -> errors.put(identifier.key(), String.valueOf(e.getMessage())));
+        }
+    }
+}
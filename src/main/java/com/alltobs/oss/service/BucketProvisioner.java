@@ -0,0 +1,131 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.properties.OssProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 类 BucketProvisioner
+ * </p>
+ * 在后台创建默认存储桶和过期目录，失败时按指数退避一直重试，直到成功或关闭。
+ * 先创建默认存储桶，成功后再初始化各个过期目录；操作只等待自己需要的存储桶或目录。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+class BucketProvisioner implements AutoCloseable {
+
+    private final OssProperties.Provisioning config;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final CompletableFuture<Void> base = new CompletableFuture<>();
+
+    private final Map<String, CompletableFuture<Void>> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param config   初始化配置
+     * @param baseTask 创建默认存储桶，为 null 时表示没有默认存储桶
+     * @param tasks    key 为 bucket 或目录名称，value 为初始化任务
+     */
+    BucketProvisioner(OssProperties.Provisioning config, Runnable baseTask, Map<String, Runnable> tasks) {
+        this.config = config;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "oss-provisioning");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tasks.forEach((name, task) -> {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            buckets.put(name, future);
+            base.thenRun(() -> run(name, task, future, 0));
+        });
+        if (baseTask == null) {
+            base.complete(null);
+        } else {
+            run("默认存储桶", baseTask, base, 0);
+        }
+    }
+
+    /**
+     * 等待操作需要的存储桶或目录初始化完成，超时或被中断时直接返回，由实际请求报告错误
+     *
+     * @param bucketName bucket 或 BASE_BUCKET 下的目录名称
+     */
+    void await(String bucketName) {
+        CompletableFuture<Void> bucket = bucketName == null ? null : buckets.get(bucketName);
+        CompletableFuture<Void> required = bucket == null ? base : bucket;
+        if (required.isDone()) {
+            return;
+        }
+        try {
+            required.get(config.getAwaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("等待 {} 初始化超时，继续执行", bucketName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 不会发生，任务只会成功完成
+        }
+    }
+
+    /**
+     * 是否全部初始化完成
+     *
+     * @return 是否完成
+     */
+    boolean isDone() {
+        return base.isDone() && buckets.values().stream().allMatch(CompletableFuture::isDone);
+    }
+
+    /**
+     * 尚未初始化完成的 bucket 或目录
+     *
+     * @return 名称
+     */
+    List<String> pending() {
+        List<String> pending = new ArrayList<>();
+        buckets.forEach((name, future) -> {
+            if (!future.isDone()) {
+                pending.add(name);
+            }
+        });
+        return pending;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void run(String name, Runnable task, CompletableFuture<Void> future, long delayNanos) {
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    task.run();
+                    future.complete(null);
+                    log.info("{} 初始化完成", name);
+                } catch (RuntimeException e) {
+                    long next = Math.min(config.getMaxBackoff().toNanos(), delayNanos == 0 ? config.getInitialBackoff().toNanos() : delayNanos * 2);
+                    log.warn("{} 初始化失败，{}ms 后重试：{}", name, TimeUnit.NANOSECONDS.toMillis(next), e.getMessage());
+                    run(name, task, future, next);
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // 已关闭
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.model.CopyResult;
+import com.alltobs.oss.model.DeleteResult;
+import com.alltobs.oss.properties.OssProperties;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 类 CopyEngine
+ * </p>
+ * 服务端复制。小对象使用单个 CopyObject，大对象拆分为多个 UploadPartCopy 并发复制后合并，
+ * 支持超过 5GB 的对象。批量复制时由列表线程提交所有请求，线程池中的任务互不等待，
+ * 同时执行的请求数（CopyObject 和 UploadPartCopy 合计）受信号量限制。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+class CopyEngine {
+
+    /**
+     * UploadPartCopy 单个分片最大 5GB
+     */
+    static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+
+    /**
+     * 每提交多少个对象清理一次已完成的任务，避免复制大量对象时任务列表无限增长
+     */
+    private static final int PRUNE_INTERVAL = 1000;
+
+    private final S3Client s3Client;
+
+    private final ExecutorService executor;
+
+    private final OssProperties.Copy config;
+
+    private final Function<String, BatchDeleter> deleterFactory;
+
+    /**
+     * @param s3Client       S3客户端
+     * @param executor       执行复制请求的线程池
+     * @param config         复制配置
+     * @param deleterFactory 移动时删除源对象的批量删除器，参数为实际存储的 bucket
+     */
+    CopyEngine(S3Client s3Client, ExecutorService executor, OssProperties.Copy config, Function<String, BatchDeleter> deleterFactory) {
+        this.s3Client = s3Client;
+        this.executor = executor;
+        this.config = config;
+        this.deleterFactory = deleterFactory;
+    }
+
+    /**
+     * 复制大小未知的单个对象，失败时抛出原始异常。先在调用线程上直接 CopyObject，不预先读取元数据；
+     * 源对象超过 5GB 被拒绝时再读取元数据改用分片复制
+     */
+    void copy(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey) throws InterruptedIOException {
+        try {
+            copySingle(sourceBucket, sourceKey, destinationBucket, destinationKey);
+        } catch (S3Exception e) {
+            if (!isTooLargeForCopyObject(e)) {
+                throw e;
+            }
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder().bucket(sourceBucket).key(sourceKey).build());
+            copyMultipart(sourceBucket, sourceKey, head.contentLength(), head, destinationBucket, destinationKey);
+        }
+    }
+
+    /**
+     * 复制大小已知的单个对象，超过 multipartThreshold 时并发分片复制，失败时抛出原始异常
+     */
+    void copy(String sourceBucket, String sourceKey, long size, String destinationBucket, String destinationKey) throws InterruptedIOException {
+        if (size <= config.getMultipartThreshold()) {
+            copySingle(sourceBucket, sourceKey, destinationBucket, destinationKey);
+        } else {
+            copyMultipart(sourceBucket, sourceKey, size, null, destinationBucket, destinationKey);
+        }
+    }
+
+    private void copySingle(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey) {
+        s3Client.copyObject(CopyObjectRequest.builder().sourceBucket(sourceBucket).sourceKey(sourceKey).destinationBucket(destinationBucket).destinationKey(destinationKey).build());
+    }
+
+    private void copyMultipart(String sourceBucket, String sourceKey, long size, HeadObjectResponse head, String destinationBucket, String destinationKey) throws InterruptedIOException {
+        CopyJob job = new CopyJob(null);
+        job.submit(sourceBucket, sourceKey, size, head, destinationBucket, destinationKey);
+        job.finish();
+        Throwable failure = job.failures.get(sourceKey);
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    /**
+     * CopyObject 的源对象超过 5GB 时 S3 返回 400 InvalidRequest，部分兼容实现返回 EntityTooLarge
+     */
+    private static boolean isTooLargeForCopyObject(S3Exception e) {
+        String errorCode = e.awsErrorDetails() == null ? null : e.awsErrorDetails().errorCode();
+        return e.statusCode() == 400 && ("InvalidRequest".equals(errorCode) || "EntityTooLarge".equals(errorCode));
+    }
+
+    /**
+     * 复制前缀下的所有对象，目标 key 为目标前缀加上源 key 去掉源前缀后的部分。move 为 true 时复制成功后删除源对象
+     */
+    CopyResult copyPrefix(String sourceBucket, String sourcePrefix, String destinationBucket, String destinationPrefix, boolean move) throws InterruptedIOException {
+        if (sourceBucket.equals(destinationBucket) && destinationPrefix.startsWith(sourcePrefix)) {
+            throw new IllegalArgumentException("目标前缀不能位于源前缀之下: " + sourcePrefix + " -> " + destinationPrefix);
+        }
+        CopyJob job = new CopyJob(move ? deleterFactory.apply(sourceBucket) : null);
+        int submitted = 0;
+        for (S3Object object : s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder().bucket(sourceBucket).prefix(sourcePrefix).build()).contents()) {
+            job.submit(sourceBucket, object.key(), object.size(), null, destinationBucket, destinationPrefix + object.key().substring(sourcePrefix.length()));
+            job.drainMoved();
+            if (++submitted % PRUNE_INTERVAL == 0) {
+                job.objects.removeIf(CompletableFuture::isDone);
+            }
+        }
+        return job.finish();
+    }
+
+    /**
+     * 解析源对象的 Expires 头，格式不正确时不复制该头
+     */
+    private static Instant parseExpires(String expires) {
+        if (expires == null) {
+            return null;
+        }
+        try {
+            return DateTimeFormatter.RFC_1123_DATE_TIME.parse(expires, Instant::from);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 计算分片大小，保证不超过 10000 个分片
+     */
+    long resolvePartSize(long size) {
+        long partSize = Math.max(config.getPartSize(), MultipartUploadEngine.MIN_PART_SIZE);
+        if ((size + partSize - 1) / partSize > MultipartUploadEngine.MAX_PARTS) {
+            long mb = 1024 * 1024;
+            partSize = ((size + MultipartUploadEngine.MAX_PARTS - 1) / MultipartUploadEngine.MAX_PARTS + mb - 1) / mb * mb;
+        }
+        return Math.min(partSize, MAX_PART_SIZE);
+    }
+
+    /**
+     * 一次复制任务的状态，submit 和 finish 只能在同一个线程中调用
+     */
+    private class CopyJob {
+
+        private final Semaphore permits = new Semaphore(Math.max(1, config.getConcurrency()));
+
+        private final List<CompletableFuture<Void>> objects = new ArrayList<>();
+
+        private final AtomicLong copiedCount = new AtomicLong();
+
+        private final AtomicLong copiedBytes = new AtomicLong();
+
+        private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+        private final BatchDeleter deleter;
+
+        private final Queue<String> moved = new ConcurrentLinkedQueue<>();
+
+        private final long startNanos = System.nanoTime();
+
+        CopyJob(BatchDeleter deleter) {
+            this.deleter = deleter;
+        }
+
+        /**
+         * 提交一个对象，同时执行的请求数达到上限时阻塞。head 为 null 时大对象会先读取元数据
+         */
+        void submit(String sourceBucket, String sourceKey, long size, HeadObjectResponse head, String destinationBucket, String destinationKey) throws InterruptedIOException {
+            CompletableFuture<Void> future;
+            try {
+                future = size <= config.getMultipartThreshold() ? submitSingle(sourceBucket, sourceKey, destinationBucket, destinationKey) : submitMultipart(sourceBucket, sourceKey, size, head, destinationBucket, destinationKey);
+            } catch (RuntimeException e) {
+                failures.put(sourceKey, e);
+                return;
+            }
+            objects.add(future.whenComplete((ignored, e) -> {
+                if (e != null) {
+                    failures.put(sourceKey, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    return;
+                }
+                copiedCount.incrementAndGet();
+                copiedBytes.addAndGet(size);
+                if (deleter != null) {
+                    moved.add(sourceKey);
+                }
+            }));
+        }
+
+        private CompletableFuture<Void> submitSingle(String sourceBucket, String sourceKey, String destinationBucket, String destinationKey) throws InterruptedIOException {
+            acquire();
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    copySingle(sourceBucket, sourceKey, destinationBucket, destinationKey);
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        }
+
+        private CompletableFuture<Void> submitMultipart(String sourceBucket, String sourceKey, long size, HeadObjectResponse head, String destinationBucket, String destinationKey) throws InterruptedIOException {
+            // UploadPartCopy 不会复制元数据，需要在初始化时设置
+            HeadObjectResponse source = head != null ? head : s3Client.headObject(HeadObjectRequest.builder().bucket(sourceBucket).key(sourceKey).build());
+            String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(destinationBucket).key(destinationKey).contentType(source.contentType()).contentEncoding(source.contentEncoding()).contentDisposition(source.contentDisposition()).contentLanguage(source.contentLanguage()).cacheControl(source.cacheControl()).expires(parseExpires(source.expiresString())).metadata(source.metadata()).build()).uploadId();
+
+            long partSize = resolvePartSize(size);
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            AtomicBoolean failed = new AtomicBoolean();
+            List<CompletableFuture<CompletedPart>> parts = new ArrayList<>(partCount);
+            try {
+                for (int i = 0; i < partCount; i++) {
+                    int partNumber = i + 1;
+                    long first = i * partSize;
+                    long last = Math.min(size, first + partSize) - 1;
+                    acquire();
+                    parts.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            if (failed.get()) {
+                                throw new IllegalStateException("分片复制已失败");
+                            }
+                            // 复制过程中源对象被修改时失败，避免合并出不同版本的分片
+                            String eTag = s3Client.uploadPartCopy(UploadPartCopyRequest.builder().sourceBucket(sourceBucket).sourceKey(sourceKey).copySourceIfMatch(source.eTag()).copySourceRange("bytes=" + first + "-" + last).destinationBucket(destinationBucket).destinationKey(destinationKey).uploadId(uploadId).partNumber(partNumber).build()).copyPartResult().eTag();
+                            return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+                        } catch (RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        } finally {
+                            permits.release();
+                        }
+                    }, executor));
+                }
+            } catch (InterruptedIOException e) {
+                failed.set(true);
+                CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> abort(destinationBucket, destinationKey, uploadId));
+                throw e;
+            }
+
+            return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenRunAsync(() -> {
+                List<CompletedPart> completedParts = parts.stream().map(CompletableFuture::join).toList();
+                s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(destinationBucket).key(destinationKey).uploadId(uploadId).multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build()).build());
+            }, executor).whenComplete((ignored, e) -> {
+                if (e != null) {
+                    abort(destinationBucket, destinationKey, uploadId);
+                }
+            });
+        }
+
+        /**
+         * 把已复制成功的源对象交给批量删除器，只在提交线程中调用
+         */
+        void drainMoved() throws InterruptedIOException {
+            if (deleter == null) {
+                return;
+            }
+            String key;
+            while ((key = moved.poll()) != null) {
+                deleter.add(key);
+            }
+        }
+
+        /**
+         * 等待所有复制完成，移动时删除剩余的源对象
+         */
+        CopyResult finish() throws InterruptedIOException {
+            for (CompletableFuture<Void> future : objects) {
+                try {
+                    future.join();
+                } catch (CompletionException ignored) {
+                    // 失败原因已记录
+                }
+            }
+            drainMoved();
+            Map<String, String> errors = new LinkedHashMap<>();
+            failures.forEach((key, e) -> errors.put(key, String.valueOf(e.getMessage())));
+            long deletedCount = 0;
+            if (deleter != null) {
+                DeleteResult deleteResult = deleter.finish();
+                deletedCount = deleteResult.getDeletedCount();
+                errors.putAll(deleteResult.getErrors());
+            }
+            return new CopyResult(copiedCount.get(), copiedBytes.get(), deletedCount, errors, Duration.ofNanos(System.nanoTime() - startNanos));
+        }
+
+        private void acquire() throws InterruptedIOException {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("复制被中断");
+            }
+        }
+
+        private void abort(String bucket, String key, String uploadId) {
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder().bucket(bucket).key(key).uploadId(uploadId).build());
+            } catch (RuntimeException e) {
+                log.warn("放弃分片复制失败 uploadId={}：{}", uploadId, e.getMessage());
+            }
+        }
+    }
+}
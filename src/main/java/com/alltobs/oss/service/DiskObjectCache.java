@@ -0,0 +1,518 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.support.ExpiringCache;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 类 DiskObjectCache
+ * </p>
+ * 本地磁盘读缓存。对象内容保存在缓存目录下，每次读取时用 If-None-Match 带上缓存的 ETag 发起条件 GET，
+ * 服务端返回 304 时直接读取本地文件，只有对象变化时才重新下载。未命中时把远端响应直接返回给调用方，
+ * 调用方读取的同时写入临时文件，读完且长度一致时才加入缓存，第一个字节不需要等待整个对象下载完成。
+ * 配置 revalidateAfter 后，距离上次校验不超过该时间的读取不再访问服务端。
+ * 超过 maxSize 时按最近访问时间淘汰（LRU）。缓存目录中同时保存元数据文件，重启后可以继续使用。
+ * 每次写入使用新的文件名，淘汰或失效旧条目时不会删除同一对象新写入的文件。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+class DiskObjectCache {
+
+    private static final String DATA_SUFFIX = ".data";
+
+    private static final String META_SUFFIX = ".meta";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final long NOT_VALIDATED = Long.MIN_VALUE;
+
+    /**
+     * 发起 GET 请求，由 OssTemplate 经过只读副本路由执行
+     */
+    private final Function<GetObjectRequest, ResponseInputStream<GetObjectResponse>> fetcher;
+
+    private final OssProperties.DiskCache config;
+
+    private final ChecksumMode checksumMode;
+
+    private final Path directory;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    DiskObjectCache(Function<GetObjectRequest, ResponseInputStream<GetObjectResponse>> fetcher, OssProperties.DiskCache config, ChecksumMode checksumMode) throws IOException {
+        this.fetcher = fetcher;
+        this.config = config;
+        this.checksumMode = checksumMode;
+        this.directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    /**
+     * 读取对象，命中缓存时返回本地文件的输入流
+     */
+    ResponseInputStream<GetObjectResponse> getObject(String bucket, String key) {
+        Lookup lookup = lookup(bucket, key);
+        if (lookup.remote() != null) {
+            return lookup.remote();
+        }
+        Entry entry = lookup.entry();
+        try {
+            InputStream stream = Files.newInputStream(entry.dataFile(directory), StandardOpenOption.READ);
+            return new ResponseInputStream<>(entry.toResponse(), stream);
+        } catch (NoSuchFileException e) {
+            return refetch(bucket, key, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把对象内容写入目标通道，命中缓存时通过 FileChannel.transferTo 零拷贝发送
+     */
+    long transferTo(String bucket, String key, WritableByteChannel target) throws IOException {
+        Lookup lookup = lookup(bucket, key);
+        if (lookup.remote() != null) {
+            try (InputStream stream = lookup.remote()) {
+                return stream.transferTo(Channels.newOutputStream(target));
+            }
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(lookup.entry().dataFile(directory), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            try (InputStream stream = refetch(bucket, key, lookup.entry())) {
+                return stream.transferTo(Channels.newOutputStream(target));
+            }
+        }
+        try (channel) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * 命中的条目在打开文件前被淘汰或删除，移除条目后直接从服务端读取
+     */
+    private ResponseInputStream<GetObjectResponse> refetch(String bucket, String key, Entry entry) {
+        if (entries.remove(cacheKey(bucket, key), entry)) {
+            deleteFiles(entry);
+        }
+        missCount.increment();
+        return fetcher.apply(GetObjectRequest.builder().bucket(bucket).key(key).checksumMode(checksumMode).build());
+    }
+
+    /**
+     * 对象被本客户端修改或删除时移除缓存
+     */
+    void invalidate(String bucket, String key) {
+        Entry entry = entries.remove(cacheKey(bucket, key));
+        if (entry != null) {
+            deleteFiles(entry);
+        }
+    }
+
+    ExpiringCache.CacheStats stats() {
+        return new ExpiringCache.CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), entries.size());
+    }
+
+    private Lookup lookup(String bucket, String key) {
+        String cacheKey = cacheKey(bucket, key);
+        Entry entry = entries.get(cacheKey);
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key).checksumMode(checksumMode);
+        if (entry != null) {
+            entry.lastAccess = System.nanoTime();
+            if (!config.getRevalidateAfter().isZero() && entry.validatedAt != NOT_VALIDATED && System.nanoTime() - entry.validatedAt < config.getRevalidateAfter().toNanos()) {
+                hitCount.increment();
+                return new Lookup(entry, null);
+            }
+            request.ifNoneMatch(entry.eTag);
+        }
+
+        ResponseInputStream<GetObjectResponse> response;
+        try {
+            response = fetcher.apply(request.build());
+        } catch (S3Exception e) {
+            if (entry != null && e.statusCode() == 304) {
+                entry.validatedAt = System.nanoTime();
+                hitCount.increment();
+                return new Lookup(entry, null);
+            }
+            throw e;
+        }
+
+        missCount.increment();
+        GetObjectResponse head = response.response();
+        if (head.contentLength() == null || head.contentLength() > config.getMaxObjectSize() || head.eTag() == null) {
+            // 过大的对象不缓存，直接返回远端流
+            return new Lookup(null, response);
+        }
+        String fileName = fileName(cacheKey) + "-" + UUID.randomUUID();
+        FillingStream filling;
+        try {
+            Path temp = Files.createTempFile(directory, fileName, TEMP_SUFFIX);
+            filling = new FillingStream(cacheKey, bucket, key, fileName, response, temp, Files.newOutputStream(temp));
+        } catch (IOException e) {
+            log.warn("创建本地缓存文件失败 {}：{}", cacheKey, e.getMessage());
+            return new Lookup(null, response);
+        }
+        return new Lookup(null, new ResponseInputStream<>(head, AbortableInputStream.create(filling, filling::abort)));
+    }
+
+    /**
+     * 完整读取的临时文件加入缓存，替换同一对象的旧条目
+     */
+    private void store(String cacheKey, String bucket, String key, String fileName, GetObjectResponse head, Path temp) throws IOException {
+        Entry entry = new Entry(bucket, key, fileName, head.eTag(), head.contentLength(), head.contentType(), head.lastModified());
+        Files.move(temp, entry.dataFile(directory), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeMeta(entry);
+
+        totalBytes.addAndGet(entry.size);
+        Entry previous = entries.put(cacheKey, entry);
+        if (previous != null) {
+            deleteFiles(previous);
+        }
+        if (totalBytes.get() > config.getMaxSize()) {
+            evict();
+        }
+    }
+
+    /**
+     * 按最近访问时间淘汰到 maxSize 的 90%，避免每次写入都触发淘汰
+     */
+    private synchronized void evict() {
+        if (totalBytes.get() <= config.getMaxSize()) {
+            return;
+        }
+        long target = config.getMaxSize() / 10 * 9;
+        List<Map.Entry<String, Entry>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccess));
+        for (Map.Entry<String, Entry> candidate : candidates) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                deleteFiles(candidate.getValue());
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private void deleteFiles(Entry entry) {
+        totalBytes.addAndGet(-entry.size);
+        try {
+            // 已打开的读取在 Linux 等系统上不受删除影响
+            Files.deleteIfExists(entry.metaFile(directory));
+            Files.deleteIfExists(entry.dataFile(directory));
+        } catch (IOException e) {
+            log.warn("删除本地缓存文件失败 {}：{}", entry.fileName, e.getMessage());
+        }
+    }
+
+    private void writeMeta(Entry entry) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("bucket", entry.bucket);
+        meta.setProperty("key", entry.key);
+        meta.setProperty("etag", entry.eTag);
+        meta.setProperty("size", String.valueOf(entry.size));
+        if (entry.contentType != null) {
+            meta.setProperty("contentType", entry.contentType);
+        }
+        if (entry.lastModified != null) {
+            meta.setProperty("lastModified", String.valueOf(entry.lastModified.toEpochMilli()));
+        }
+        try (OutputStream out = Files.newOutputStream(entry.metaFile(directory))) {
+            meta.store(new OutputStreamWriter(out, StandardCharsets.UTF_8), null);
+        }
+    }
+
+    /**
+     * 启动时加载缓存目录中已有的对象，清理不完整的文件
+     */
+    private void loadIndex() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + META_SUFFIX)) {
+            for (Path metaFile : files) {
+                Properties meta = new Properties();
+                try (InputStream in = Files.newInputStream(metaFile)) {
+                    meta.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                    String fileName = metaFile.getFileName().toString();
+                    fileName = fileName.substring(0, fileName.length() - META_SUFFIX.length());
+                    String lastModified = meta.getProperty("lastModified");
+                    Entry entry = new Entry(meta.getProperty("bucket"), meta.getProperty("key"), fileName, meta.getProperty("etag"), Long.parseLong(meta.getProperty("size")), meta.getProperty("contentType"), lastModified == null ? null : Instant.ofEpochMilli(Long.parseLong(lastModified)));
+                    Path dataFile = entry.dataFile(directory);
+                    if (entry.bucket == null || entry.key == null || entry.eTag == null || !Files.exists(dataFile) || Files.size(dataFile) != entry.size) {
+                        throw new IOException("缓存文件不完整");
+                    }
+                    // 重启后的条目需要重新校验；同一对象有多个版本时（删除旧版本前进程退出）只保留一个
+                    entry.validatedAt = NOT_VALIDATED;
+                    if (entries.putIfAbsent(cacheKey(entry.bucket, entry.key), entry) != null) {
+                        throw new IOException("重复的缓存条目");
+                    }
+                    totalBytes.addAndGet(entry.size);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(metaFile);
+                }
+            }
+        }
+        // 清理没有元数据的数据文件，如写入元数据前进程退出或上面删除的条目
+        Set<String> dataFiles = new HashSet<>();
+        entries.values().forEach(entry -> dataFiles.add(entry.fileName + DATA_SUFFIX));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + DATA_SUFFIX)) {
+            for (Path file : files) {
+                if (!dataFiles.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        if (totalBytes.get() > config.getMaxSize()) {
+            evict();
+        }
+        log.info("本地缓存目录 {}，已加载 {} 个对象，共 {} 字节", directory, entries.size(), totalBytes.get());
+    }
+
+    private static String cacheKey(String bucket, String key) {
+        return bucket + "/" + key;
+    }
+
+    private static String fileName(String cacheKey) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(cacheKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Lookup(Entry entry, ResponseInputStream<GetObjectResponse> remote) {
+    }
+
+    /**
+     * 把远端响应转发给调用方，同时写入临时文件。读到结尾且长度一致时加入缓存；
+     * 写入失败或调用方没有读完就关闭时放弃缓存，不影响调用方的读取
+     */
+    private final class FillingStream extends InputStream {
+
+        private final String cacheKey;
+
+        private final String bucket;
+
+        private final String key;
+
+        private final String fileName;
+
+        private final ResponseInputStream<GetObjectResponse> remote;
+
+        private final Path temp;
+
+        /**
+         * 放弃或完成后为 null
+         */
+        private OutputStream out;
+
+        private long written;
+
+        FillingStream(String cacheKey, String bucket, String key, String fileName, ResponseInputStream<GetObjectResponse> remote, Path temp, OutputStream out) {
+            this.cacheKey = cacheKey;
+            this.bucket = bucket;
+            this.key = key;
+            this.fileName = fileName;
+            this.remote = remote;
+            this.temp = temp;
+            this.out = out;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = remote.read();
+            if (b < 0) {
+                finish();
+            } else if (out != null) {
+                try {
+                    out.write(b);
+                    written++;
+                } catch (IOException e) {
+                    abandon(e);
+                }
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = remote.read(b, off, len);
+            if (n < 0) {
+                finish();
+            } else if (n > 0 && out != null) {
+                try {
+                    out.write(b, off, n);
+                    written += n;
+                } catch (IOException e) {
+                    abandon(e);
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return remote.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                remote.close();
+            } finally {
+                abandon(null);
+            }
+        }
+
+        void abort() {
+            remote.abort();
+            abandon(null);
+        }
+
+        private void finish() {
+            if (out == null) {
+                return;
+            }
+            GetObjectResponse head = remote.response();
+            try {
+                out.close();
+                out = null;
+                if (written != head.contentLength()) {
+                    throw new IOException("长度不一致，期望 " + head.contentLength() + "，实际 " + written);
+                }
+                store(cacheKey, bucket, key, fileName, head, temp);
+            } catch (IOException e) {
+                log.warn("写入本地缓存失败 {}：{}", cacheKey, e.getMessage());
+            } finally {
+                deleteTemp();
+            }
+        }
+
+        private void abandon(IOException cause) {
+            if (out == null) {
+                return;
+            }
+            if (cause != null) {
+                log.warn("写入本地缓存失败 {}：{}", cacheKey, cause.getMessage());
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                // 临时文件随后删除
+            }
+            out = null;
+            deleteTemp();
+        }
+
+        private void deleteTemp() {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("删除本地缓存临时文件失败 {}：{}", temp, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final String bucket;
+
+        final String key;
+
+        final String fileName;
+
+        final String eTag;
+
+        final long size;
+
+        final String contentType;
+
+        final Instant lastModified;
+
+        volatile long lastAccess = System.nanoTime();
+
+        volatile long validatedAt = System.nanoTime();
+
+        Entry(String bucket, String key, String fileName, String eTag, long size, String contentType, Instant lastModified) {
+            this.bucket = bucket;
+            this.key = key;
+            this.fileName = fileName;
+            this.eTag = eTag;
+            this.size = size;
+            this.contentType = contentType;
+            this.lastModified = lastModified;
+        }
+
+        Path dataFile(Path directory) {
+            return directory.resolve(fileName + DATA_SUFFIX);
+        }
+
+        Path metaFile(Path directory) {
+            return directory.resolve(fileName + META_SUFFIX);
+        }
+
+        GetObjectResponse toResponse() {
+            return GetObjectResponse.builder().eTag(eTag).contentLength(size).contentType(contentType).lastModified(lastModified).build();
+        }
+    }
+}
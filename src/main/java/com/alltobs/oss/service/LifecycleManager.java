@@ -0,0 +1,166 @@
+package com.alltobs.oss.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketLifecycleConfiguration;
+import software.amazon.awssdk.services.s3.model.ExpirationStatus;
+import software.amazon.awssdk.services.s3.model.GetBucketLifecycleConfigurationRequest;
+import software.amazon.awssdk.services.s3.model.LifecycleExpiration;
+import software.amazon.awssdk.services.s3.model.LifecycleRule;
+import software.amazon.awssdk.services.s3.model.LifecycleRuleFilter;
+import software.amazon.awssdk.services.s3.model.PutBucketLifecycleConfigurationRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类 LifecycleManager
+ * </p>
+ * 生命周期规则管理。PutBucketLifecycleConfiguration 会覆盖桶上的全部规则，这里先读取现有配置，
+ * 按规则 ID 合并后再写入，内容没有变化时不写入。同一个桶的合并串行执行，已确认存在的规则记录在内存中，
+ * 再次设置相同规则时不发起任何请求。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+class LifecycleManager {
+
+    /**
+     * 按天数过期的对象标签
+     */
+    static final String EXPIRE_DAYS_TAG = "oss-expire-days";
+
+    private final S3Client s3Client;
+
+    /**
+     * 已确认存在的规则，key 为 bucket，value 为规则 ID 到规则的映射
+     */
+    private final Map<String, Map<String, LifecycleRule>> applied = new ConcurrentHashMap<>();
+
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    LifecycleManager(S3Client s3Client) {
+        this.s3Client = s3Client;
+    }
+
+    /**
+     * 按 ID 合并规则，同 ID 的规则被替换，其他规则保留
+     *
+     * @param bucket 实际存储的 bucket
+     * @param rules  规则，必须有 ID
+     * @return 是否写入了新的配置
+     */
+    boolean mergeRules(String bucket, Collection<LifecycleRule> rules) {
+        Map<String, LifecycleRule> known = applied.get(bucket);
+        if (known != null && rules.stream().allMatch(rule -> rule.equals(known.get(rule.id())))) {
+            return false;
+        }
+        synchronized (locks.computeIfAbsent(bucket, key -> new Object())) {
+            Map<String, LifecycleRule> changes = new LinkedHashMap<>();
+            for (LifecycleRule rule : rules) {
+                if (rule.id() == null) {
+                    throw new IllegalArgumentException("生命周期规则必须有 ID");
+                }
+                changes.put(rule.id(), rule);
+            }
+            List<LifecycleRule> current = currentRules(bucket);
+            List<LifecycleRule> merged = new ArrayList<>(current.size() + changes.size());
+            boolean changed = false;
+            for (LifecycleRule existing : current) {
+                LifecycleRule replacement = existing.id() == null ? null : changes.remove(existing.id());
+                if (replacement == null) {
+                    merged.add(existing);
+                } else {
+                    merged.add(replacement);
+                    changed |= !replacement.equals(existing);
+                }
+            }
+            merged.addAll(changes.values());
+            changed |= !changes.isEmpty();
+            if (changed) {
+                s3Client.putBucketLifecycleConfiguration(PutBucketLifecycleConfigurationRequest.builder().bucket(bucket).lifecycleConfiguration(BucketLifecycleConfiguration.builder().rules(merged).build()).build());
+                log.info("已更新 {} 的生命周期规则，共 {} 条", bucket, merged.size());
+            }
+            remember(bucket, merged);
+            return changed;
+        }
+    }
+
+    /**
+     * 按 ID 删除规则
+     *
+     * @param bucket  实际存储的 bucket
+     * @param ruleIds 规则 ID
+     * @return 是否写入了新的配置
+     */
+    boolean removeRules(String bucket, Collection<String> ruleIds) {
+        synchronized (locks.computeIfAbsent(bucket, key -> new Object())) {
+            List<LifecycleRule> current = currentRules(bucket);
+            List<LifecycleRule> remaining = current.stream().filter(rule -> rule.id() == null || !ruleIds.contains(rule.id())).toList();
+            if (remaining.size() == current.size()) {
+                remember(bucket, current);
+                return false;
+            }
+            if (remaining.isEmpty()) {
+                s3Client.deleteBucketLifecycle(builder -> builder.bucket(bucket));
+            } else {
+                s3Client.putBucketLifecycleConfiguration(PutBucketLifecycleConfigurationRequest.builder().bucket(bucket).lifecycleConfiguration(BucketLifecycleConfiguration.builder().rules(remaining).build()).build());
+            }
+            remember(bucket, remaining);
+            return true;
+        }
+    }
+
+    /**
+     * 读取桶上的全部规则，没有配置时返回空列表
+     *
+     * @param bucket 实际存储的 bucket
+     * @return 规则
+     */
+    List<LifecycleRule> currentRules(String bucket) {
+        try {
+            return s3Client.getBucketLifecycleConfiguration(GetBucketLifecycleConfigurationRequest.builder().bucket(bucket).build()).rules();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404 && "NoSuchLifecycleConfiguration".equals(e.awsErrorDetails().errorCode())) {
+                return List.of();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 带有 oss-expire-days 标签的对象在指定天数后删除，每个天数一条规则
+     *
+     * @param days 天数
+     * @return 规则
+     */
+    static LifecycleRule expireByTagRule(int days) {
+        return LifecycleRule.builder().id("AutoDeleteTag-" + days + "d").filter(LifecycleRuleFilter.builder().tag(Tag.builder().key(EXPIRE_DAYS_TAG).value(String.valueOf(days)).build()).build()).expiration(LifecycleExpiration.builder().days(days).build()).status(ExpirationStatus.ENABLED).build();
+    }
+
+    /**
+     * 前缀下的对象在指定天数后删除
+     *
+     * @param id     规则 ID
+     * @param prefix 对象前缀，空字符串表示整个桶
+     * @param days   天数
+     * @return 规则
+     */
+    static LifecycleRule expireByPrefixRule(String id, String prefix, int days) {
+        return LifecycleRule.builder().id(id).filter(LifecycleRuleFilter.builder().prefix(prefix).build()).expiration(LifecycleExpiration.builder().days(days).build()).status(ExpirationStatus.ENABLED).build();
+    }
+
+    private void remember(String bucket, List<LifecycleRule> rules) {
+        Map<String, LifecycleRule> known = new ConcurrentHashMap<>();
+        rules.stream().filter(rule -> rule.id() != null).forEach(rule -> known.put(rule.id(), rule));
+        applied.put(bucket, known);
+    }
+}
@@ -0,0 +1,405 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.model.LargeUploadOptions;
+import com.alltobs.oss.model.TransferProgressListener;
+import com.alltobs.oss.model.UploadResult;
+import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.support.ByteBufferPool;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 类 MultipartUploadEngine
+ * </p>
+ * 大文件并发分片上传，自动计算分片大小，在线程池中并发上传分片，同时上传的分片数受信号量限制。
+ * 任意分片失败时等待已提交的分片结束后放弃整个分片上传，不会留下未完成的上传。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+class MultipartUploadEngine {
+
+    /**
+     * S3 单次分片上传最多 10000 个分片
+     */
+    static final int MAX_PARTS = 10000;
+
+    /**
+     * S3 要求除最后一个分片外，每个分片至少 5MB
+     */
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    /**
+     * 读取长度未知的流时第一个缓冲区的大小，数据更多时按两倍增长到分片大小
+     */
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final OssTemplate ossTemplate;
+
+    private final ExecutorService executor;
+
+    private final OssProperties.Multipart config;
+
+    private final ByteBufferPool bufferPool;
+
+    MultipartUploadEngine(OssTemplate ossTemplate, ExecutorService executor, OssProperties.Multipart config, ByteBufferPool bufferPool) {
+        this.ossTemplate = ossTemplate;
+        this.executor = executor;
+        this.config = config;
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * 上传本地文件，小于一个分片时直接上传
+     */
+    UploadResult upload(String bucketName, String objectName, Path file, LargeUploadOptions options) throws IOException {
+        long size = Files.size(file);
+        long partSize = resolvePartSize(size, options);
+
+        // 所有分片共用一个通道做定位读取，分片内容不经过堆内存
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (size <= partSize) {
+                PutObjectResponse response = ossTemplate.putObject(bucketName, objectName, channel, 0, size, options.getContentType(), options.getExpiresAt(), options.getTagging());
+                return singleResult(bucketName, objectName, response, size, options);
+            }
+
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            PartUploadSession session = new PartUploadSession(bucketName, objectName, options, size);
+            try {
+                for (int i = 0; i < partCount; i++) {
+                    int partNumber = i + 1;
+                    long position = i * partSize;
+                    long length = Math.min(partSize, size - position);
+                    session.submit(length, () -> ossTemplate.uploadPart(bucketName, objectName, session.uploadId, partNumber, channel, position, length));
+                }
+                return session.complete(size);
+            } catch (IOException | RuntimeException e) {
+                session.abort(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 上传长度未知的输入流。第一个分片先读入小缓冲区，数据超过时逐步换成更大的缓冲区，不足一个分片时直接上传，
+     * 小文件只占用与数据大小相当的缓冲区；否则切换为分片上传，读取下一个分片的同时上传之前的分片。
+     * 同时租用的缓冲区最多 concurrency + 1 个，内存占用与数据总大小无关
+     */
+    UploadResult upload(String bucketName, String objectName, InputStream stream, LargeUploadOptions options) throws IOException {
+        long partSize = resolvePartSize(options.getContentLength(), options);
+        int bufferSize = toBufferSize(partSize);
+        int concurrency = options.getConcurrency() > 0 ? options.getConcurrency() : config.getConcurrency();
+        Semaphore bufferPermits = new Semaphore(concurrency + 1);
+        ReadableByteChannel source = Channels.newChannel(stream);
+
+        ByteBufferPool.Lease first = fillFirst(source, bufferPermits, bufferSize);
+        int firstLength = first.buffer().remaining();
+        if (firstLength < bufferSize) {
+            try {
+                PutObjectResponse response = ossTemplate.putObject(bucketName, objectName, first.buffer(), options.getContentType(), options.getExpiresAt(), options.getTagging());
+                return singleResult(bucketName, objectName, response, firstLength, options);
+            } finally {
+                release(bufferPermits, first);
+            }
+        }
+
+        PartUploadSession session;
+        try {
+            session = new PartUploadSession(bucketName, objectName, options, options.getContentLength());
+        } catch (RuntimeException e) {
+            release(bufferPermits, first);
+            throw e;
+        }
+        long total = 0;
+        try {
+            ByteBufferPool.Lease lease = first;
+            int length = firstLength;
+            int partNumber = 1;
+            while (true) {
+                if (partNumber > MAX_PARTS) {
+                    release(bufferPermits, lease);
+                    throw new IOException("数据超过最大分片数 " + MAX_PARTS + "，请增大分片大小");
+                }
+                ByteBufferPool.Lease part = lease;
+                int currentPart = partNumber;
+                session.submit(length, () -> ossTemplate.uploadPart(bucketName, objectName, session.uploadId, currentPart, part.buffer()), () -> release(bufferPermits, part));
+                total += length;
+                partNumber++;
+                if (length < bufferSize) {
+                    break;
+                }
+                // 所有缓冲区都在上传时在这里等待，读取速度不会超过上传速度
+                lease = acquire(bufferPermits, bufferSize);
+                try {
+                    length = fill(source, lease.buffer());
+                } catch (IOException | RuntimeException e) {
+                    release(bufferPermits, lease);
+                    throw e;
+                }
+                if (length == 0) {
+                    release(bufferPermits, lease);
+                    break;
+                }
+            }
+            return session.complete(total);
+        } catch (IOException | RuntimeException e) {
+            session.abort(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 计算分片大小，保证不超过 10000 个分片，并按 MB 向上取整
+     */
+    long resolvePartSize(long size, LargeUploadOptions options) {
+        long partSize = options.getPartSize() > 0 ? options.getPartSize() : config.getMinPartSize();
+        partSize = Math.max(partSize, MIN_PART_SIZE);
+        if (size > 0 && (size + partSize - 1) / partSize > MAX_PARTS) {
+            long mb = 1024 * 1024;
+            partSize = ((size + MAX_PARTS - 1) / MAX_PARTS + mb - 1) / mb * mb;
+        }
+        return partSize;
+    }
+
+    private UploadResult singleResult(String bucketName, String objectName, PutObjectResponse response, long size, LargeUploadOptions options) {
+        if (options.getProgressListener() != null) {
+            options.getProgressListener().onProgress(size, size);
+        }
+        return new UploadResult(ossTemplate.targetBucket(bucketName), ossTemplate.targetKey(bucketName, objectName), response.eTag(), response.versionId(), size, 0);
+    }
+
+    private ByteBufferPool.Lease acquire(Semaphore bufferPermits, int bufferSize) throws InterruptedIOException {
+        try {
+            bufferPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待分片缓冲区时被中断");
+        }
+        return bufferPool.acquire(bufferSize);
+    }
+
+    /**
+     * 读取第一个分片，缓冲区读满且小于分片大小时换成两倍大小的缓冲区继续读取。返回的缓冲区为读模式
+     */
+    private ByteBufferPool.Lease fillFirst(ReadableByteChannel source, Semaphore bufferPermits, int bufferSize) throws IOException {
+        ByteBufferPool.Lease lease = acquire(bufferPermits, Math.min(INITIAL_BUFFER_SIZE, bufferSize));
+        try {
+            while (true) {
+                ByteBuffer buffer = lease.buffer();
+                boolean eof = false;
+                while (buffer.hasRemaining() && !eof) {
+                    eof = source.read(buffer) < 0;
+                }
+                if (eof || buffer.limit() == bufferSize) {
+                    buffer.flip();
+                    return lease;
+                }
+                // 换缓冲区不需要新的许可，同一时间只占用一个
+                ByteBufferPool.Lease larger = bufferPool.acquire((int) Math.min(buffer.limit() * 2L, bufferSize));
+                buffer.flip();
+                larger.buffer().put(buffer);
+                lease.close();
+                lease = larger;
+            }
+        } catch (IOException | RuntimeException e) {
+            release(bufferPermits, lease);
+            throw e;
+        }
+    }
+
+    private static void release(Semaphore bufferPermits, ByteBufferPool.Lease lease) {
+        lease.close();
+        bufferPermits.release();
+    }
+
+    /**
+     * 读满缓冲区或读到流末尾，返回读取的字节数，缓冲区切换为读模式
+     */
+    private static int fill(ReadableByteChannel source, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining();
+    }
+
+    private static int toBufferSize(long partSize) {
+        if (partSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("分片大小过大: " + partSize);
+        }
+        return (int) partSize;
+    }
+
+    /**
+     * 一次分片上传的状态
+     */
+    private class PartUploadSession {
+
+        private final String bucketName;
+
+        private final String objectName;
+
+        private final String uploadId;
+
+        private final Semaphore permits;
+
+        private final List<CompletableFuture<CompletedPart>> futures = new ArrayList<>();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private final AtomicLong transferred = new AtomicLong();
+
+        private final long totalBytes;
+
+        private final TransferProgressListener progressListener;
+
+        PartUploadSession(String bucketName, String objectName, LargeUploadOptions options, long totalBytes) {
+            this.bucketName = bucketName;
+            this.objectName = objectName;
+            this.totalBytes = totalBytes;
+            this.progressListener = options.getProgressListener();
+            this.permits = new Semaphore(options.getConcurrency() > 0 ? options.getConcurrency() : config.getConcurrency());
+            this.uploadId = ossTemplate.initiateMultipartUpload(bucketName, objectName, options.getContentType(), options.getExpiresAt(), options.getTagging());
+        }
+
+        /**
+         * 提交一个分片，同时上传的分片数达到上限时阻塞
+         */
+        void submit(long length, PartTask task) throws IOException {
+            submit(length, task, null);
+        }
+
+        /**
+         * 提交一个分片，分片结束（包括未执行）后调用 release 释放分片占用的资源
+         */
+        void submit(long length, PartTask task, Runnable release) throws IOException {
+            try {
+                rethrowFailure();
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (release != null) {
+                    release.run();
+                }
+                throw new InterruptedIOException("分片上传被中断");
+            } catch (IOException | RuntimeException e) {
+                if (release != null) {
+                    release.run();
+                }
+                throw e;
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    if (failure.get() != null) {
+                        throw new IllegalStateException("分片上传已失败");
+                    }
+                    CompletedPart part = task.upload();
+                    long done = transferred.addAndGet(length);
+                    if (progressListener != null) {
+                        progressListener.onProgress(done, totalBytes);
+                    }
+                    return part;
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                } finally {
+                    permits.release();
+                    if (release != null) {
+                        release.run();
+                    }
+                }
+            }, executor));
+        }
+
+        /**
+         * 等待所有分片完成并合并
+         */
+        UploadResult complete(long size) throws IOException {
+            List<CompletedPart> parts = new ArrayList<>(futures.size());
+            for (CompletableFuture<CompletedPart> future : futures) {
+                try {
+                    parts.add(future.join());
+                } catch (CompletionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                    rethrowFailure();
+                }
+            }
+            parts.sort(Comparator.comparing(CompletedPart::partNumber));
+            CompleteMultipartUploadResponse response = ossTemplate.completeMultipartUpload(bucketName, objectName, uploadId, parts);
+            return new UploadResult(response.bucket(), response.key(), response.eTag(), response.versionId(), size, parts.size());
+        }
+
+        /**
+         * 等待已提交的分片结束后放弃上传
+         */
+        void abort(Exception cause) {
+            failure.compareAndSet(null, cause);
+            for (CompletableFuture<CompletedPart> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException ignored) {
+                    // 失败原因已记录
+                }
+            }
+            try {
+                ossTemplate.abortMultipartUpload(bucketName, objectName, uploadId);
+            } catch (RuntimeException e) {
+                log.warn("放弃分片上传失败 uploadId={}：{}", uploadId, e.getMessage());
+                cause.addSuppressed(e);
+            }
+        }
+
+        private void rethrowFailure() throws IOException {
+            Throwable throwable = failure.get();
+            if (throwable == null) {
+                return;
+            }
+            if (throwable instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (throwable instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (throwable instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(throwable);
+        }
+    }
+
+    /**
+     * 分片上传任务
+     */
+    @FunctionalInterface
+    private interface PartTask {
+
+        CompletedPart upload();
+    }
+}
@@ -0,0 +1,64 @@
+package com.alltobs.oss.service;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectAclRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectTaggingRequest;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 类 ObjectWriteInterceptor
+ * </p>
+ * 监听本客户端成功执行的对象写操作（上传、删除、复制、完成分片上传、修改标签和 ACL），
+ * 通知本地缓存失效。无论写操作来自 OssTemplate 的哪个方法都能覆盖到。
+ * 其他进程或客户端的写入无法感知，由各缓存自身的校验或过期时间兜底。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+class ObjectWriteInterceptor implements ExecutionInterceptor {
+
+    private final BiConsumer<String, String> onObjectChanged;
+
+    /**
+     * @param onObjectChanged 回调，参数为实际存储的 bucket 和对象 key
+     */
+    ObjectWriteInterceptor(BiConsumer<String, String> onObjectChanged) {
+        this.onObjectChanged = onObjectChanged;
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        SdkRequest request = context.request();
+        if (request instanceof PutObjectRequest putObjectRequest) {
+            onObjectChanged.accept(putObjectRequest.bucket(), putObjectRequest.key());
+        } else if (request instanceof DeleteObjectRequest deleteObjectRequest) {
+            onObjectChanged.accept(deleteObjectRequest.bucket(), deleteObjectRequest.key());
+        } else if (request instanceof DeleteObjectsRequest deleteObjectsRequest) {
+            for (ObjectIdentifier identifier : deleteObjectsRequest.delete().objects()) {
+                onObjectChanged.accept(deleteObjectsRequest.bucket(), identifier.key());
+            }
+        } else if (request instanceof CopyObjectRequest copyObjectRequest) {
+            onObjectChanged.accept(copyObjectRequest.destinationBucket(), copyObjectRequest.destinationKey());
+        } else if (request instanceof CompleteMultipartUploadRequest completeMultipartUploadRequest) {
+            onObjectChanged.accept(completeMultipartUploadRequest.bucket(), completeMultipartUploadRequest.key());
+        } else if (request instanceof PutObjectTaggingRequest putObjectTaggingRequest) {
+            onObjectChanged.accept(putObjectTaggingRequest.bucket(), putObjectTaggingRequest.key());
+        } else if (request instanceof DeleteObjectTaggingRequest deleteObjectTaggingRequest) {
+            onObjectChanged.accept(deleteObjectTaggingRequest.bucket(), deleteObjectTaggingRequest.key());
+        } else if (request instanceof PutObjectAclRequest putObjectAclRequest) {
+            onObjectChanged.accept(putObjectAclRequest.bucket(), putObjectAclRequest.key());
+        }
+    }
+}
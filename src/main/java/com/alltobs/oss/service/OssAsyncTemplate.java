@@ -0,0 +1,589 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.model.DeleteResult;
+import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.support.Checksums;
+import com.alltobs.oss.support.ExpiringCache;
+import com.alltobs.oss.support.OssClientFactory;
+import com.alltobs.oss.support.RequestThrottle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * OssAsyncTemplate类基于 S3AsyncClient 封装了与 OssTemplate 对应的异步操作方法，所有方法返回 CompletableFuture，
+ * 网络传输期间不占用调用线程。配置了限流或自适应并发控制时，在发起请求前异步获取令牌和并发许可，等待期间也不占用线程。
+ * 当BASE_BUCKET不为空时，所有操作都基于BASE_BUCKET进行；否则基于传入的bucketName进行。
+ * </p>
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+public class OssAsyncTemplate implements InitializingBean, DisposableBean {
+
+    private final OssProperties ossProperties;
+
+    /**
+     * 客户端工厂，提供共用的连接池
+     */
+    private final OssClientFactory clientFactory;
+
+    /**
+     * 工厂是否由当前模板创建，是则在销毁时关闭
+     */
+    private final boolean ownClientFactory;
+
+    private S3AsyncClient s3AsyncClient;
+
+    /**
+     * 用于读取 InputStream 请求体的线程池，只在上传 InputStream 时使用。每个上传占用一个连接和一个线程，
+     * 线程数与最大并发请求数相同，空闲后自动回收
+     */
+    private ExecutorService streamExecutor;
+
+    private String BASE_BUCKET;
+
+    /**
+     * 桶/目录存在性缓存，key 为解析后的 bucket 或 bucket/目录前缀
+     */
+    private ExpiringCache<String, Boolean> bucketExistCache;
+
+    /**
+     * 上传时计算的校验和算法，未配置时为 null
+     */
+    private ChecksumAlgorithm checksumAlgorithm;
+
+    /**
+     * 下载整个对象时的校验模式，不校验时为 null
+     */
+    private ChecksumMode checksumMode;
+
+    /**
+     * 创建模板，使用独立的连接池
+     *
+     * @param ossProperties 配置
+     */
+    public OssAsyncTemplate(OssProperties ossProperties) {
+        this(ossProperties, null);
+    }
+
+    /**
+     * 创建模板，使用工厂提供的共用连接池
+     *
+     * @param ossProperties 配置
+     * @param clientFactory 客户端工厂，为 null 时单独创建
+     */
+    public OssAsyncTemplate(OssProperties ossProperties, OssClientFactory clientFactory) {
+        this.ossProperties = ossProperties;
+        this.ownClientFactory = clientFactory == null;
+        this.clientFactory = clientFactory == null ? new OssClientFactory(ossProperties) : clientFactory;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        s3AsyncClient = clientFactory.createAsyncClient(ossProperties);
+
+        int streamThreads = Math.max(1, ossProperties.getAsync().getMaxConcurrency());
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(streamThreads, streamThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "oss-async-stream-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        streamExecutor = executor;
+
+        BASE_BUCKET = ossProperties.getBucketName();
+        bucketExistCache = new ExpiringCache<>(ossProperties.getBucketCache().getMaxSize());
+        checksumAlgorithm = Checksums.algorithm(ossProperties.getChecksum());
+        checksumMode = Checksums.mode(ossProperties.getChecksum());
+    }
+
+    @Override
+    public void destroy() {
+        if (s3AsyncClient != null) {
+            s3AsyncClient.close();
+        }
+        if (streamExecutor != null) {
+            streamExecutor.shutdown();
+        }
+        if (ownClientFactory) {
+            clientFactory.close();
+        }
+    }
+
+    /**
+     * 获取底层的异步客户端
+     *
+     * @return S3AsyncClient
+     */
+    public S3AsyncClient getS3AsyncClient() {
+        return s3AsyncClient;
+    }
+
+    /**
+     * 检查桶或 BASE_BUCKET 下的目录是否存在
+     *
+     * @param bucketName 桶名称或目录名称
+     * @return 是否存在
+     */
+    public CompletableFuture<Boolean> doesBucketOrFolderExist(String bucketName) {
+        OssProperties.BucketCache cacheConfig = ossProperties.getBucketCache();
+        String cacheKey = bucketExistCacheKey(bucketName);
+        if (cacheConfig.isEnabled()) {
+            Boolean cached = bucketExistCache.get(cacheKey);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        CompletableFuture<Boolean> future;
+        if (StringUtils.hasText(BASE_BUCKET)) {
+            String targetPrefix = bucketName.endsWith("/") ? bucketName : bucketName + "/";
+            future = throttled(BASE_BUCKET, targetPrefix, override -> s3AsyncClient.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(targetPrefix).delimiter("/").maxKeys(1).overrideConfiguration(override).build())).thenApply(response -> !response.contents().isEmpty() || !response.commonPrefixes().isEmpty());
+        } else {
+            future = throttled(null, null, override -> s3AsyncClient.listBuckets(ListBucketsRequest.builder().overrideConfiguration(override).build())).thenApply(response -> response.buckets().stream().anyMatch(b -> b.name().equals(bucketName)));
+        }
+
+        return future.thenApply(exist -> {
+            if (cacheConfig.isEnabled()) {
+                bucketExistCache.put(cacheKey, exist, exist ? cacheConfig.getTtl() : cacheConfig.getNegativeTtl());
+            }
+            return exist;
+        });
+    }
+
+    /**
+     * 创建桶或目录
+     * 如果 BASE_BUCKET 不为空，则在 BASE_BUCKET 下创建目录。
+     * 否则，直接创建桶。
+     *
+     * @param bucketName 目标bucket名称或目录名称
+     * @return 完成信号
+     */
+    public CompletableFuture<Void> createBucket(String bucketName) {
+        CompletableFuture<?> future;
+        if (StringUtils.hasText(BASE_BUCKET)) {
+            future = throttled(BASE_BUCKET, bucketName + "/", override -> s3AsyncClient.putObject(PutObjectRequest.builder().bucket(BASE_BUCKET).key(bucketName + "/").contentLength(0L).overrideConfiguration(override).build(), AsyncRequestBody.empty()));
+        } else {
+            future = throttled(null, null, override -> s3AsyncClient.listBuckets(ListBucketsRequest.builder().overrideConfiguration(override).build())).thenCompose(response -> response.buckets().stream().anyMatch(b -> b.name().equals(bucketName)) ? CompletableFuture.completedFuture(null) : throttled(bucketName, null, override -> s3AsyncClient.createBucket(CreateBucketRequest.builder().bucket(bucketName).overrideConfiguration(override).build())));
+        }
+        return future.thenAccept(ignored -> {
+            if (ossProperties.getBucketCache().isEnabled()) {
+                bucketExistCache.put(bucketExistCacheKey(bucketName), true, ossProperties.getBucketCache().getTtl());
+            }
+        });
+    }
+
+    /**
+     * 删除指定桶或 BASE_BUCKET 下的目录
+     *
+     * @param bucketName bucket名称
+     * @return 完成信号，BASE_BUCKET 模式下有对象删除失败时以 IllegalStateException 失败
+     */
+    public CompletableFuture<Void> removeBucket(String bucketName) {
+        Assert.hasText(bucketName, "bucketName 不能为空");
+        CompletableFuture<?> future;
+        if (StringUtils.hasText(BASE_BUCKET)) {
+            // 如果 BASE_BUCKET 不为空，删除的是 BASE_BUCKET 下的目录，连同目录下的所有对象
+            future = removePrefix(bucketName, "").thenAccept(result -> {
+                if (!result.isSuccessful()) {
+                    throw new IllegalStateException("删除目录 " + bucketName + " 时有 " + result.getErrors().size() + " 个对象删除失败: " + result.getErrors());
+                }
+            });
+        } else {
+            future = throttled(bucketName, null, override -> s3AsyncClient.deleteBucket(DeleteBucketRequest.builder().bucket(bucketName).overrideConfiguration(override).build()));
+        }
+        // 部分删除时目录标记可能已被删除，缓存同样需要失效
+        return future.whenComplete((ignored, e) -> bucketExistCache.invalidate(bucketExistCacheKey(bucketName))).thenAccept(ignored -> {
+        });
+    }
+
+    /**
+     * 删除指定前缀下的所有文件，逐页列出并按页批量删除，不会把所有 key 读入内存
+     *
+     * @param bucketName bucket名称
+     * @param prefix     对象前缀，为空时删除整个桶（BASE_BUCKET 模式下为整个目录）中的对象
+     * @return 删除结果，失败的对象以实际对象 key 记录
+     */
+    public CompletableFuture<DeleteResult> removePrefix(String bucketName, String prefix) {
+        // bucketName 为空时 BASE_BUCKET 模式下的前缀会覆盖整个 BASE_BUCKET
+        Assert.hasText(bucketName, "bucketName 不能为空");
+        ListObjectsV2Request request = prefixListRequest(bucketName, prefix);
+        AtomicLong deletedCount = new AtomicLong();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        return forEachPage(request, response -> {
+            if (response.contents().isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            List<ObjectIdentifier> batch = response.contents().stream().map(s3Object -> ObjectIdentifier.builder().key(s3Object.key()).build()).collect(Collectors.toList());
+            // quiet 模式下只返回失败的对象，每页最多 1000 个，不超过单次批量删除的上限
+            return throttled(request.bucket(), request.prefix(), override -> s3AsyncClient.deleteObjects(DeleteObjectsRequest.builder().bucket(request.bucket()).delete(Delete.builder().objects(batch).quiet(true).build()).overrideConfiguration(override).build())).thenAccept(deleteResponse -> {
+                deleteResponse.errors().forEach(error -> errors.put(error.key(), String.valueOf(error.message())));
+                deletedCount.addAndGet(batch.size() - deleteResponse.errors().size());
+            });
+        }).thenApply(ignored -> {
+            log.info("删除前缀 {}/{} 完成，删除 {} 个对象，失败 {} 个", bucketName, prefix, deletedCount.get(), errors.size());
+            return new DeleteResult(deletedCount.get(), errors);
+        });
+    }
+
+    /**
+     * 上传字节数组
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  文件名称
+     * @param content     文件内容
+     * @param contentType 文件类型
+     * @return 上传响应对象
+     */
+    public CompletableFuture<PutObjectResponse> putObject(String bucketName, String objectName, byte[] content, String contentType) {
+        return ensureBucketOrFolderExist(bucketName).thenCompose(ignored -> throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.putObject(PutObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).contentLength((long) content.length).contentType(contentType).checksumAlgorithm(checksumAlgorithm).overrideConfiguration(override).build(), AsyncRequestBody.fromBytes(content))));
+    }
+
+    /**
+     * 上传本地文件
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  文件名称
+     * @param file        本地文件路径
+     * @param contentType 文件类型
+     * @return 上传响应对象
+     */
+    public CompletableFuture<PutObjectResponse> putObject(String bucketName, String objectName, Path file, String contentType) {
+        return ensureBucketOrFolderExist(bucketName).thenCompose(ignored -> throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.putObject(PutObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).contentType(contentType).checksumAlgorithm(checksumAlgorithm).overrideConfiguration(override).build(), AsyncRequestBody.fromFile(file))));
+    }
+
+    /**
+     * 上传输入流，流的读取在独立线程中进行
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  文件名称
+     * @param stream      文件输入流
+     * @param size        文件大小
+     * @param contentType 文件类型
+     * @return 上传响应对象
+     */
+    public CompletableFuture<PutObjectResponse> putObject(String bucketName, String objectName, InputStream stream, long size, String contentType) {
+        return ensureBucketOrFolderExist(bucketName).thenCompose(ignored -> throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.putObject(PutObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).contentLength(size).contentType(contentType).checksumAlgorithm(checksumAlgorithm).overrideConfiguration(override).build(), AsyncRequestBody.fromInputStream(stream, size, streamExecutor))));
+    }
+
+    /**
+     * 下载文件到内存
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @return 文件内容及响应信息
+     */
+    public CompletableFuture<ResponseBytes<GetObjectResponse>> getObject(String bucketName, String objectName) {
+        return throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.getObject(GetObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).checksumMode(checksumMode).overrideConfiguration(override).build(), AsyncResponseTransformer.toBytes()));
+    }
+
+    /**
+     * 下载文件到本地路径
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  文件名称
+     * @param destination 本地文件路径，文件不能已存在
+     * @return 响应信息
+     */
+    public CompletableFuture<GetObjectResponse> getObject(String bucketName, String objectName, Path destination) {
+        return throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.getObject(GetObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).checksumMode(checksumMode).overrideConfiguration(override).build(), AsyncResponseTransformer.toFile(destination)));
+    }
+
+    /**
+     * 下载文件，响应头到达后即返回可阻塞读取的输入流
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @return 文件的二进制流
+     */
+    public CompletableFuture<ResponseInputStream<GetObjectResponse>> getObjectAsStream(String bucketName, String objectName) {
+        return throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.getObject(GetObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).checksumMode(checksumMode).overrideConfiguration(override).build(), AsyncResponseTransformer.toBlockingInputStream()));
+    }
+
+    /**
+     * 获取文件信息
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @return 文件信息
+     */
+    public CompletableFuture<HeadObjectResponse> getObjectInfo(String bucketName, String objectName) {
+        return throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.headObject(HeadObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).overrideConfiguration(override).build()));
+    }
+
+    /**
+     * 删除文件
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @return 删除响应
+     */
+    public CompletableFuture<DeleteObjectResponse> removeObject(String bucketName, String objectName) {
+        String finalBucketName = StringUtils.hasText(BASE_BUCKET) && !bucketName.equals(BASE_BUCKET) ? BASE_BUCKET : bucketName;
+        String finalObjectName = StringUtils.hasText(BASE_BUCKET) && !bucketName.equals(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+
+        return throttled(finalBucketName, finalObjectName, override -> s3AsyncClient.deleteObject(DeleteObjectRequest.builder().bucket(finalBucketName).key(finalObjectName).overrideConfiguration(override).build()));
+    }
+
+    /**
+     * 复制对象
+     *
+     * @param sourceBucketName      源bucket名称
+     * @param sourceKey             源对象key
+     * @param destinationBucketName 目标bucket名称
+     * @param destinationKey        目标对象key
+     * @return 复制响应
+     */
+    public CompletableFuture<CopyObjectResponse> copyObject(String sourceBucketName, String sourceKey, String destinationBucketName, String destinationKey) {
+        CopyObjectRequest copyObjectRequest = CopyObjectRequest.builder().sourceBucket(targetBucket(sourceBucketName)).sourceKey(targetKey(sourceBucketName, sourceKey)).destinationBucket(targetBucket(destinationBucketName)).destinationKey(targetKey(destinationBucketName, destinationKey)).build();
+
+        return throttled(copyObjectRequest.destinationBucket(), copyObjectRequest.destinationKey(), override -> s3AsyncClient.copyObject(copyObjectRequest.toBuilder().overrideConfiguration(override).build()));
+    }
+
+    /**
+     * 获取指定前缀的所有对象，自动翻页
+     *
+     * @param bucketName bucket名称
+     * @param prefix     对象前缀
+     * @return 对象列表
+     */
+    public CompletableFuture<List<S3Object>> getAllObjectsByPrefix(String bucketName, String prefix) {
+        List<S3Object> result = Collections.synchronizedList(new ArrayList<>());
+        return listObjects(prefixListRequest(bucketName, prefix), response -> result.addAll(response.contents())).thenApply(ignored -> result);
+    }
+
+    /**
+     * 构建带前缀的列表请求，BASE_BUCKET 不为空时前缀基于 BASE_BUCKET 下的目录
+     */
+    private ListObjectsV2Request prefixListRequest(String bucketName, String prefix) {
+        if (prefix == null) {
+            prefix = "";
+        }
+        if (StringUtils.hasText(BASE_BUCKET)) {
+            if (StringUtils.hasText(bucketName)) {
+                prefix = bucketName + "/" + (prefix.startsWith("/") ? prefix.substring(1) : prefix);
+            }
+            bucketName = BASE_BUCKET;
+        }
+        return ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix).build();
+    }
+
+    /**
+     * 获取指定目录下所有文件，并根据文件类型进行过滤，自动翻页
+     *
+     * @param folderName     指定的目录名称（相对路径）
+     * @param fileExtensions 支持的文件扩展名列表，为空时不过滤
+     * @return 指定目录下所有符合条件的文件
+     */
+    public CompletableFuture<List<String>> listFiles(String folderName, String... fileExtensions) {
+        if (folderName == null || folderName.trim().isEmpty()) {
+            folderName = "";
+        } else {
+            folderName = folderName.endsWith("/") ? folderName : folderName + "/";
+        }
+
+        List<String> extensions = fileExtensions == null ? List.of() : Arrays.asList(fileExtensions);
+        List<String> result = Collections.synchronizedList(new ArrayList<>());
+        return listObjects(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build(), response -> response.contents().forEach(s3Object -> {
+            if (extensions.isEmpty() || extensions.stream().anyMatch(s3Object.key()::endsWith)) {
+                result.add(s3Object.key());
+            }
+        })).thenApply(ignored -> result);
+    }
+
+    /**
+     * 初始化分片上传
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @return 上传ID
+     */
+    public CompletableFuture<String> initiateMultipartUpload(String bucketName, String objectName) {
+        String targetBucket = targetBucket(bucketName);
+        String targetObjectName = targetKey(bucketName, objectName);
+
+        return ensureBucketOrFolderExist(bucketName).thenCompose(ignored -> throttled(targetBucket, targetObjectName, override -> s3AsyncClient.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(targetBucket).key(targetObjectName).checksumAlgorithm(checksumAlgorithm).overrideConfiguration(override).build()))).thenCompose(response -> {
+            if (ossProperties.getTempMarker() != 1) {
+                return CompletableFuture.completedFuture(response.uploadId());
+            }
+            // 创建标记文件来表示这个对象的分片上传已经初始化
+            return throttled(targetBucket, targetObjectName + ossProperties.getMarkerName(), override -> s3AsyncClient.putObject(PutObjectRequest.builder().bucket(targetBucket).key(targetObjectName + ossProperties.getMarkerName()).contentLength(0L).overrideConfiguration(override).build(), AsyncRequestBody.empty())).thenApply(ignored -> response.uploadId());
+        });
+    }
+
+    /**
+     * 上传部分
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @param partNumber 部分编号
+     * @param buffer     缓冲区
+     * @return 已完成的部分
+     */
+    public CompletableFuture<CompletedPart> uploadPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] buffer) {
+        return throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.uploadPart(UploadPartRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).uploadId(uploadId).partNumber(partNumber).contentLength((long) buffer.length).checksumAlgorithm(checksumAlgorithm).overrideConfiguration(override).build(), AsyncRequestBody.fromBytes(buffer))).thenApply(response -> Checksums.completedPart(partNumber, response));
+    }
+
+    /**
+     * 列出部分，超过 1000 个分片时分页获取
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @return 部分列表
+     */
+    public CompletableFuture<List<CompletedPart>> listParts(String bucketName, String objectName, String uploadId) {
+        List<CompletedPart> result = Collections.synchronizedList(new ArrayList<>());
+        return listParts(ListPartsRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).uploadId(uploadId).build(), result).thenApply(ignored -> result);
+    }
+
+    private CompletableFuture<Void> listParts(ListPartsRequest request, List<CompletedPart> result) {
+        return throttled(request.bucket(), request.key(), override -> s3AsyncClient.listParts(request.toBuilder().overrideConfiguration(override).build())).thenCompose(response -> {
+            response.parts().forEach(part -> result.add(Checksums.completedPart(part)));
+            if (!Boolean.TRUE.equals(response.isTruncated())) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return listParts(request.toBuilder().partNumberMarker(response.nextPartNumberMarker()).build(), result);
+        });
+    }
+
+    /**
+     * 完成分片上传
+     *
+     * @param bucketName     bucket名称
+     * @param objectName     对象名称
+     * @param uploadId       上传ID
+     * @param completedParts 已完成的部分
+     * @return 完成响应
+     */
+    public CompletableFuture<CompleteMultipartUploadResponse> completeMultipartUpload(String bucketName, String objectName, String uploadId, List<CompletedPart> completedParts) {
+        CompletedMultipartUpload completedMultipartUpload = CompletedMultipartUpload.builder().parts(completedParts).build();
+        return throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).uploadId(uploadId).multipartUpload(completedMultipartUpload).overrideConfiguration(override).build())).thenCompose(response -> removeMarker(bucketName, objectName).thenApply(ignored -> response));
+    }
+
+    /**
+     * 放弃多部分上传
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @return 完成信号
+     */
+    public CompletableFuture<Void> abortMultipartUpload(String bucketName, String objectName, String uploadId) {
+        return throttled(targetBucket(bucketName), targetKey(bucketName, objectName), override -> s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).uploadId(uploadId).overrideConfiguration(override).build())).thenCompose(ignored -> removeMarker(bucketName, objectName));
+    }
+
+    /**
+     * 删除分片上传的临时标记文件
+     */
+    private CompletableFuture<Void> removeMarker(String bucketName, String objectName) {
+        if (ossProperties.getTempMarker() != 1) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return removeObject(bucketName, objectName + ossProperties.getMarkerName()).thenAccept(ignored -> {
+        });
+    }
+
+    /**
+     * 逐页列出对象，每页都单独获取令牌和并发许可（SDK 的分页器复用第一页的许可，后续页无法等待）
+     */
+    private CompletableFuture<Void> listObjects(ListObjectsV2Request request, Consumer<ListObjectsV2Response> consumer) {
+        return forEachPage(request, response -> {
+            consumer.accept(response);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * 逐页列出对象，当前页处理完成后再请求下一页
+     */
+    private CompletableFuture<Void> forEachPage(ListObjectsV2Request request, Function<ListObjectsV2Response, CompletableFuture<Void>> pageHandler) {
+        return throttled(request.bucket(), request.prefix(), override -> s3AsyncClient.listObjectsV2(request.toBuilder().overrideConfiguration(override).build())).thenCompose(response -> pageHandler.apply(response).thenCompose(ignored -> {
+            if (!Boolean.TRUE.equals(response.isTruncated())) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return forEachPage(request.toBuilder().continuationToken(response.nextContinuationToken()).build(), pageHandler);
+        }));
+    }
+
+    /**
+     * 配置了限流或自适应并发控制时，先异步获取令牌和并发许可再发起请求，等待期间不占用线程。
+     * 请求没有发出（如构造请求体失败）时归还许可
+     *
+     * @param targetBucket 请求的 bucket
+     * @param targetKey    请求的对象 key 或前缀，用于匹配限流规则
+     * @param call         使用携带许可的请求配置发起请求，未配置限流时请求配置为 null
+     */
+    private <T> CompletableFuture<T> throttled(String targetBucket, String targetKey, Function<AwsRequestOverrideConfiguration, CompletableFuture<T>> call) {
+        RequestThrottle requestThrottle = clientFactory.requestThrottle();
+        if (requestThrottle == null) {
+            return call.apply(null);
+        }
+        return requestThrottle.reserve(targetBucket, targetKey).thenCompose(reservation -> {
+            try {
+                return call.apply(reservation.overrideConfiguration()).whenComplete((result, e) -> reservation.cancel());
+            } catch (RuntimeException e) {
+                reservation.cancel();
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * 上传前确保桶或目录存在，不存在时创建
+     */
+    private CompletableFuture<Void> ensureBucketOrFolderExist(String bucketName) {
+        if (!ossProperties.isCheckBucketExist()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return doesBucketOrFolderExist(bucketName).thenCompose(exist -> exist ? CompletableFuture.completedFuture(null) : createBucket(bucketName));
+    }
+
+    private String bucketExistCacheKey(String bucketName) {
+        if (StringUtils.hasText(BASE_BUCKET)) {
+            return BASE_BUCKET + "/" + (bucketName.endsWith("/") ? bucketName : bucketName + "/");
+        }
+        return bucketName;
+    }
+
+    private String targetBucket(String bucketName) {
+        return StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
+    }
+
+    private String targetKey(String bucketName, String objectName) {
+        return StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+    }
+}
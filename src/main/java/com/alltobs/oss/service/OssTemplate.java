@@ -1,29 +1,67 @@
 package com.alltobs.oss.service;
 
+import com.alltobs.oss.model.CleanupResult;
+import com.alltobs.oss.model.CopyResult;
+import com.alltobs.oss.model.DeleteResult;
+import com.alltobs.oss.model.DownloadOptions;
+import com.alltobs.oss.model.DownloadResult;
+import com.alltobs.oss.model.LargeUploadOptions;
+import com.alltobs.oss.model.UploadResult;
 import com.alltobs.oss.properties.OssProperties;
-import lombok.RequiredArgsConstructor;
+import com.alltobs.oss.support.ByteBufferContentStreamProvider;
+import com.alltobs.oss.support.ByteBufferPool;
+import com.alltobs.oss.support.Checksums;
+import com.alltobs.oss.support.ExpiringCache;
+import com.alltobs.oss.support.FileUploadSessionStore;
+import com.alltobs.oss.support.OssClientFactory;
+import com.alltobs.oss.support.RequestThrottle;
+import com.alltobs.oss.support.FileRegionContentStreamProvider;
+import com.alltobs.oss.support.ListObjectsPageIterator;
+import com.alltobs.oss.support.SingleFlight;
+import com.alltobs.oss.support.UploadSessionStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * OssTemplate类封装了对S3服务的操作方法，包括文件上传、下载、删除、目录创建等。
@@ -35,35 +73,290 @@ import java.util.stream.Collectors;
  * @since 1.0.0
  */
 @Slf4j
-@RequiredArgsConstructor
-public class OssTemplate implements InitializingBean {
+public class OssTemplate implements InitializingBean, DisposableBean {
+
+    /**
+     * 元数据修改计数的分段数，不同对象落在同一分段时只会少缓存一次结果
+     */
+    private static final int METADATA_GENERATION_STRIPES = 256;
 
     private final OssProperties ossProperties;
 
+    /**
+     * 客户端工厂，提供共用的连接池
+     */
+    private final OssClientFactory clientFactory;
+
+    /**
+     * 工厂是否由当前模板创建，是则在销毁时关闭
+     */
+    private final boolean ownClientFactory;
+
     private S3Client s3Client;
     private S3Presigner s3Presigner;
 
     private String BASE_BUCKET;
 
+    /**
+     * 桶/目录存在性缓存，key 为解析后的 bucket 或 bucket/目录前缀
+     */
+    private ExpiringCache<String, Boolean> bucketExistCache;
+
+    /**
+     * 预签名 URL 缓存，未启用时为 null
+     */
+    private ExpiringCache<PresignCacheKey, String> presignCache;
+
+    /**
+     * 本地磁盘读缓存，未启用时为 null
+     */
+    private DiskObjectCache diskCache;
+
+    /**
+     * 对象元数据缓存，未启用时为 null
+     */
+    private ExpiringCache<MetadataCacheKey, Object> metadataCache;
+
+    /**
+     * 按对象分段的修改计数，元数据读取期间对象被本客户端修改时不缓存读取结果，未启用元数据缓存时为 null
+     */
+    private AtomicLongArray metadataGenerations;
+
+    /**
+     * 并发读请求合并，未启用时为 null
+     */
+    private SingleFlight<Object, Object> singleFlight;
+
+    /**
+     * 后台任务线程池，线程空闲后自动回收
+     */
+    private ExecutorService workerExecutor;
+
+    /**
+     * 线程池是否由当前模板创建，是则在销毁时关闭
+     */
+    private boolean ownWorkerExecutor;
+
+    private MultipartUploadEngine multipartUploadEngine;
+
+    private RangedDownloadEngine rangedDownloadEngine;
+
+    private CopyEngine copyEngine;
+
+    /**
+     * 只读副本路由，未配置副本时为 null
+     */
+    private ReplicaRouter replicaRouter;
+
+    /**
+     * 后台初始化存储桶，未开启 oss.provisioning.async 时为 null
+     */
+    private BucketProvisioner bucketProvisioner;
+
+    /**
+     * 生命周期规则管理，按规则 ID 合并
+     */
+    private LifecycleManager lifecycleManager;
+
+    /**
+     * 上传时计算的校验和算法，未配置时为 null
+     */
+    private ChecksumAlgorithm checksumAlgorithm;
+
+    /**
+     * 下载整个对象时的校验模式，不校验时为 null
+     */
+    private ChecksumMode checksumMode;
+
+    /**
+     * 可续传分片上传会话存储，为 null 时使用本地日志文件
+     */
+    private UploadSessionStore uploadSessionStore;
+
+    /**
+     * 所属的 oss.profiles 名称，默认模板为 null
+     */
+    private String profile;
+
+    /**
+     * 可续传分片上传，未启用时为 null
+     */
+    private UploadSessionManager uploadSessionManager;
+
+    /**
+     * 创建模板，使用独立的连接池
+     *
+     * @param ossProperties 配置
+     */
+    public OssTemplate(OssProperties ossProperties) {
+        this(ossProperties, null);
+    }
+
+    /**
+     * 创建模板，使用工厂提供的共用连接池
+     *
+     * @param ossProperties 配置
+     * @param clientFactory 客户端工厂，为 null 时单独创建
+     */
+    public OssTemplate(OssProperties ossProperties, OssClientFactory clientFactory) {
+        this.ossProperties = ossProperties;
+        this.ownClientFactory = clientFactory == null;
+        this.clientFactory = clientFactory == null ? new OssClientFactory(ossProperties) : clientFactory;
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
-        s3Client = S3Client.builder().credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(ossProperties.getAccessKey(), ossProperties.getSecretKey()))).region(Region.of(ossProperties.getRegion())).serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(ossProperties.getPathStyleAccess()).build()).endpointOverride(URI.create(ossProperties.getEndpoint())).build();
+        s3Client = clientFactory.createClient(ossProperties, List.of(new ObjectWriteInterceptor(this::onObjectChanged)));
 
-        s3Presigner = S3Presigner.builder().credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(ossProperties.getAccessKey(), ossProperties.getSecretKey()))).region(Region.of(ossProperties.getRegion())).serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(ossProperties.getPathStyleAccess()).build()).endpointOverride(URI.create(ossProperties.getPreviewUrl())).build();
+        s3Presigner = clientFactory.createPresigner(ossProperties);
+        lifecycleManager = new LifecycleManager(s3Client);
+        checksumAlgorithm = Checksums.algorithm(ossProperties.getChecksum());
+        checksumMode = Checksums.mode(ossProperties.getChecksum());
 
         BASE_BUCKET = ossProperties.getBucketName();
+        bucketExistCache = new ExpiringCache<>(ossProperties.getBucketCache().getMaxSize());
+        if (ossProperties.getPresignCache().isEnabled()) {
+            presignCache = new ExpiringCache<>(ossProperties.getPresignCache().getMaxSize());
+        }
+        if (ossProperties.getMetadataCache().isEnabled()) {
+            metadataCache = new ExpiringCache<>(ossProperties.getMetadataCache().getMaxSize());
+            metadataGenerations = new AtomicLongArray(METADATA_GENERATION_STRIPES);
+        }
+        if (ossProperties.getSingleFlight().isEnabled()) {
+            singleFlight = new SingleFlight<>();
+        }
+        if (ossProperties.getDiskCache().isEnabled()) {
+            // 未命中和校验请求同样经过只读副本路由
+            diskCache = new DiskObjectCache(request -> read(client -> client.getObject(request), ResponseInputStream::abort), ossProperties.getDiskCache(), checksumMode);
+        }
+
+        if (workerExecutor == null) {
+            workerExecutor = newWorkerExecutor(ossProperties.getWorkerThreads());
+            ownWorkerExecutor = true;
+        }
+        multipartUploadEngine = new MultipartUploadEngine(this, workerExecutor, ossProperties.getMultipart(), clientFactory.bufferPool());
+        rangedDownloadEngine = new RangedDownloadEngine(s3Client, workerExecutor, ossProperties.getDownload());
+        if (!ossProperties.getReadReplicas().getEndpoints().isEmpty()) {
+            replicaRouter = createReplicaRouter();
+        }
+        copyEngine = new CopyEngine(s3Client, workerExecutor, ossProperties.getCopy(), this::batchDeleter);
+        if (ossProperties.getUploadSession().isEnabled()) {
+            UploadSessionStore store = uploadSessionStore != null ? uploadSessionStore : new FileUploadSessionStore(ossProperties.getUploadSession().getDirectory());
+            uploadSessionManager = new UploadSessionManager(this, s3Client, workerExecutor, multipartUploadEngine, store, ossProperties, profile);
+        }
+
+        if (ossProperties.getProvisioning().isAsync()) {
+            // 启动时不访问存储服务，在后台创建并重试
+            Map<String, Runnable> tasks = new LinkedHashMap<>();
+            if (ossProperties.getExpiringBuckets() != null) {
+                ossProperties.getExpiringBuckets().forEach((name, days) -> tasks.put(name, () -> provisionBucketFolderWithExpiration(name, days)));
+            }
+            bucketProvisioner = new BucketProvisioner(ossProperties.getProvisioning(), StringUtils.hasText(BASE_BUCKET) ? this::createBaseBucket : null, tasks);
+            return;
+        }
 
         // 创建默认的存储桶
-        if (StringUtils.hasText(BASE_BUCKET) && !isBucketExist(BASE_BUCKET)) {
-            s3Client.createBucket(CreateBucketRequest.builder().bucket(BASE_BUCKET).build());
+        if (StringUtils.hasText(BASE_BUCKET)) {
+            createBaseBucket();
         }
 
         // 为每个子目录设置生命周期规则
         if (ossProperties.getExpiringBuckets() != null) {
-            ossProperties.getExpiringBuckets().forEach(this::createBucketFolderWithExpiration);
+            createBucketFoldersWithExpiration(ossProperties.getExpiringBuckets());
         }
     }
 
+    private void createBaseBucket() {
+        if (!isBucketExist(BASE_BUCKET)) {
+            s3Client.createBucket(CreateBucketRequest.builder().bucket(BASE_BUCKET).build());
+        }
+    }
+
+    /**
+     * 默认存储桶和过期目录是否初始化完成，未开启 oss.provisioning.async 时初始化在启动时完成，始终为 true
+     *
+     * @return 是否完成
+     */
+    public boolean isProvisioned() {
+        return bucketProvisioner == null || bucketProvisioner.isDone();
+    }
+
+    /**
+     * 尚未初始化完成的过期目录
+     *
+     * @return 目录名称
+     */
+    public List<String> getPendingProvisioning() {
+        return bucketProvisioner == null ? List.of() : bucketProvisioner.pending();
+    }
+
+    @Override
+    public void destroy() {
+        if (bucketProvisioner != null) {
+            bucketProvisioner.close();
+        }
+        if (uploadSessionManager != null) {
+            uploadSessionManager.close();
+        }
+        if (workerExecutor != null && ownWorkerExecutor) {
+            workerExecutor.shutdownNow();
+        }
+        if (replicaRouter != null) {
+            replicaRouter.close();
+        }
+        if (s3Presigner != null) {
+            s3Presigner.close();
+        }
+        if (s3Client != null) {
+            s3Client.close();
+        }
+        if (ownClientFactory) {
+            clientFactory.close();
+        }
+    }
+
+    /**
+     * 为每个副本 endpoint 创建客户端，副本只用于读取，不需要写入拦截器
+     */
+    private ReplicaRouter createReplicaRouter() {
+        List<String> endpoints = new ArrayList<>();
+        List<S3Client> clients = new ArrayList<>();
+        endpoints.add(ossProperties.getEndpoint());
+        clients.add(s3Client);
+        for (String endpoint : ossProperties.getReadReplicas().getEndpoints()) {
+            OssProperties replica = new OssProperties();
+            BeanUtils.copyProperties(ossProperties, replica);
+            replica.setEndpoint(endpoint);
+            endpoints.add(endpoint);
+            clients.add(clientFactory.createClient(replica));
+        }
+        return new ReplicaRouter(endpoints, clients, ossProperties.getReadReplicas());
+    }
+
+    /**
+     * 执行读请求，配置了只读副本时按延迟选择副本
+     */
+    private <T> T read(Function<S3Client, T> call, Consumer<T> discard) {
+        return replicaRouter == null ? call.apply(s3Client) : replicaRouter.read(call, discard);
+    }
+
+    /**
+     * 创建后台任务线程池，线程空闲后自动回收
+     *
+     * @param threads 线程数
+     * @return 线程池
+     */
+    static ExecutorService newWorkerExecutor(int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "oss-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * 检查桶是否存在
      *
@@ -81,16 +374,62 @@ public class OssTemplate implements InitializingBean {
      * @return 是否存在
      */
     public boolean doesBucketOrFolderExist(String bucketName) {
+        OssProperties.BucketCache cacheConfig = ossProperties.getBucketCache();
+        String cacheKey = bucketExistCacheKey(bucketName);
+        if (cacheConfig.isEnabled()) {
+            Boolean cached = bucketExistCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        boolean exist;
         if (StringUtils.hasText(BASE_BUCKET)) {
-            // 构建目标前缀，确保 folderName 以 "/" 结尾
+            // 构建目标前缀，确保 folderName 以 "/" 结尾，只需要知道是否有任意一个对象
             String targetPrefix = bucketName.endsWith("/") ? bucketName : bucketName + "/";
-            ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(targetPrefix).delimiter("/").build());
-            return !response.contents().isEmpty();
+            ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(targetPrefix).delimiter("/").maxKeys(1).build());
+            exist = !response.contents().isEmpty() || !response.commonPrefixes().isEmpty();
         } else {
-            return s3Client.listBuckets().buckets().stream().anyMatch(b -> b.name().equals(bucketName));
+            exist = s3Client.listBuckets().buckets().stream().anyMatch(b -> b.name().equals(bucketName));
+        }
+
+        if (cacheConfig.isEnabled()) {
+            bucketExistCache.put(cacheKey, exist, exist ? cacheConfig.getTtl() : cacheConfig.getNegativeTtl());
+        }
+        return exist;
+    }
+
+    /**
+     * 上传前确保桶或目录存在，不存在时创建
+     * 关闭 checkBucketExist 时直接跳过检查
+     *
+     * @param bucketName 桶名称或目录名称
+     */
+    void ensureBucketOrFolderExist(String bucketName) {
+        if (bucketProvisioner != null) {
+            bucketProvisioner.await(bucketName);
+        }
+        if (!ossProperties.isCheckBucketExist()) {
+            return;
+        }
+        if (!doesBucketOrFolderExist(bucketName)) {
+            createBucket(bucketName);
         }
     }
 
+    /**
+     * 存在性缓存的 key，BASE_BUCKET 模式下为 BASE_BUCKET/目录/，否则为桶名称
+     *
+     * @param bucketName 桶名称或目录名称
+     * @return 缓存 key
+     */
+    private String bucketExistCacheKey(String bucketName) {
+        if (StringUtils.hasText(BASE_BUCKET)) {
+            return BASE_BUCKET + "/" + (bucketName.endsWith("/") ? bucketName : bucketName + "/");
+        }
+        return bucketName;
+    }
+
     /**
      * 检查桶是否包含指定目录
      *
@@ -127,6 +466,9 @@ public class OssTemplate implements InitializingBean {
                 s3Client.createBucket(CreateBucketRequest.builder().bucket(bucketName).build());
             }
         }
+        if (ossProperties.getBucketCache().isEnabled()) {
+            bucketExistCache.put(bucketExistCacheKey(bucketName), true, ossProperties.getBucketCache().getTtl());
+        }
     }
 
     /**
@@ -137,10 +479,8 @@ public class OssTemplate implements InitializingBean {
     public List<String> getAllBuckets() {
         // 如果 BASE_BUCKET 存在，则获取 BASE_BUCKET 目录下的所有“桶”
         if (StringUtils.hasText(BASE_BUCKET)) {
-            ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).delimiter("/").build());
-
             // 获取所有以 '/' 结尾的“文件夹”名称
-            return response.commonPrefixes().stream().map(prefix -> prefix.prefix().replaceAll("/$", "")) // 去除末尾的 '/'
+            return streamPages(ListObjectsV2Request.builder().bucket(BASE_BUCKET).delimiter("/").build(), false).flatMap(page -> page.commonPrefixes().stream()).map(prefix -> prefix.prefix().replaceAll("/$", "")) // 去除末尾的 '/'
                     .collect(Collectors.toList());
         } else {
             // 否则返回所有顶级桶
@@ -159,15 +499,17 @@ public class OssTemplate implements InitializingBean {
         String targetPrefix = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" : "";
         String finalBucketName = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
 
-        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(finalBucketName).prefix(targetPrefix).build());
-
-        long totalSize = response.contents().stream().mapToLong(S3Object::size).sum();
+        // 逐页统计，不受单页 1000 个对象的限制
+        long totalSize;
+        try (Stream<S3Object> objects = streamPages(ListObjectsV2Request.builder().bucket(finalBucketName).prefix(targetPrefix).build(), true).flatMap(page -> page.contents().stream())) {
+            totalSize = objects.mapToLong(S3Object::size).sum();
+        }
         properties.put("size", totalSize);
 
         try {
             GetBucketLifecycleConfigurationResponse lifecycleConfig = s3Client.getBucketLifecycleConfiguration(GetBucketLifecycleConfigurationRequest.builder().bucket(finalBucketName).build());
 
-            Optional<LifecycleRule> relatedRule = lifecycleConfig.rules().stream().filter(rule -> rule.filter().prefix().equals(targetPrefix)).findFirst();
+            Optional<LifecycleRule> relatedRule = lifecycleConfig.rules().stream().filter(rule -> rule.filter() != null && targetPrefix.equals(rule.filter().prefix())).findFirst();
 
             properties.put("lifecycleRules", relatedRule.orElse(null));
         } catch (Exception e) {
@@ -181,14 +523,25 @@ public class OssTemplate implements InitializingBean {
      * 删除指定桶或 BASE_BUCKET 下的目录
      *
      * @param bucketName bucket名称
+     * @throws IllegalStateException BASE_BUCKET 模式下有对象删除失败
      */
     public void removeBucket(String bucketName) {
-        if (StringUtils.hasText(BASE_BUCKET)) {
-            // 如果 BASE_BUCKET 不为空，删除的是 BASE_BUCKET 下的目录
-            String objectName = bucketName + "/";
-            removeObject(BASE_BUCKET, objectName);
-        } else {
-            s3Client.deleteBucket(DeleteBucketRequest.builder().bucket(bucketName).build());
+        Assert.hasText(bucketName, "bucketName 不能为空");
+        try {
+            if (StringUtils.hasText(BASE_BUCKET)) {
+                // 如果 BASE_BUCKET 不为空，删除的是 BASE_BUCKET 下的目录，连同目录下的所有对象
+                DeleteResult result = removePrefix(bucketName, "");
+                if (!result.isSuccessful()) {
+                    throw new IllegalStateException("删除目录 " + bucketName + " 时有 " + result.getErrors().size() + " 个对象删除失败: " + result.getErrors());
+                }
+            } else {
+                s3Client.deleteBucket(DeleteBucketRequest.builder().bucket(bucketName).build());
+            }
+        } catch (InterruptedIOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // 部分删除时目录标记可能已被删除，缓存同样需要失效
+            bucketExistCache.invalidate(bucketExistCacheKey(bucketName));
         }
     }
 
@@ -200,6 +553,58 @@ public class OssTemplate implements InitializingBean {
      * @return 对象列表
      */
     public List<S3Object> getAllObjectsByPrefix(String bucketName, String prefix) {
+        // 获取符合条件的所有对象，自动翻页
+        try (Stream<S3Object> objects = streamObjectsByPrefix(bucketName, prefix)) {
+            return objects.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 以流的方式获取指定前缀的所有对象，按需逐页请求，适用于对象数量很多的前缀
+     *
+     * @param bucketName bucket名称
+     * @param prefix     对象前缀
+     * @return 对象流
+     */
+    public Stream<S3Object> streamObjectsByPrefix(String bucketName, String prefix) {
+        return streamObjectsByPrefix(bucketName, prefix, false);
+    }
+
+    /**
+     * 以流的方式获取指定前缀的所有对象，按需逐页请求，适用于对象数量很多的前缀
+     *
+     * @param bucketName bucket名称
+     * @param prefix     对象前缀
+     * @param prefetch   是否在消费当前页时后台预取下一页
+     * @return 对象流
+     */
+    public Stream<S3Object> streamObjectsByPrefix(String bucketName, String prefix, boolean prefetch) {
+        return streamPages(prefixListRequest(bucketName, prefix), prefetch).flatMap(page -> page.contents().stream());
+    }
+
+    /**
+     * 以迭代器的方式获取指定前缀的所有对象，按需逐页请求
+     *
+     * @param bucketName bucket名称
+     * @param prefix     对象前缀
+     * @param prefetch   是否在消费当前页时后台预取下一页
+     * @return 对象迭代器
+     */
+    public Iterator<S3Object> iterateObjectsByPrefix(String bucketName, String prefix, boolean prefetch) {
+        return streamObjectsByPrefix(bucketName, prefix, prefetch).iterator();
+    }
+
+    /**
+     * 构建带前缀的列表请求，BASE_BUCKET 不为空时前缀基于 BASE_BUCKET 下的目录
+     *
+     * @param bucketName bucket名称
+     * @param prefix     对象前缀
+     * @return 列表请求
+     */
+    private ListObjectsV2Request prefixListRequest(String bucketName, String prefix) {
+        if (prefix == null) {
+            prefix = "";
+        }
         if (StringUtils.hasText(BASE_BUCKET)) {
             // 构建完整的前缀路径
             if (StringUtils.hasText(bucketName)) {
@@ -211,13 +616,20 @@ public class OssTemplate implements InitializingBean {
         }
 
         // 创建 ListObjectsV2Request，带上前缀
-        ListObjectsV2Request request = ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix)  // 以指定的前缀开头
+        return ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix)  // 以指定的前缀开头
                 .build();
+    }
 
-        // 获取符合条件的所有对象
-        ListObjectsV2Response response = s3Client.listObjectsV2(request);
-
-        return response.contents();
+    /**
+     * 按 continuation token 逐页获取列表结果
+     *
+     * @param request  列表请求
+     * @param prefetch 是否预取下一页
+     * @return 分页结果流
+     */
+    private Stream<ListObjectsV2Response> streamPages(ListObjectsV2Request request, boolean prefetch) {
+        ListObjectsPageIterator iterator = new ListObjectsPageIterator(s3Client, request, prefetch ? workerExecutor : null);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
 
@@ -245,9 +657,55 @@ public class OssTemplate implements InitializingBean {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        PresignedGetObjectRequest getObjectRequest = s3Presigner.presignGetObject(builder -> builder.getObjectRequest(b -> b.bucket(targetBucket).key(targetObjectName)).signatureDuration(expires));
+        return presignGet(targetBucket, targetObjectName, expires);
+    }
+
+    /**
+     * 批量获取文件的下载URL，适用于一次渲染大量图片等场景。
+     * 启用 oss.presign-cache 时优先返回缓存中剩余有效期足够的 URL
+     *
+     * @param bucketName  bucket名称
+     * @param objectNames 文件名称
+     * @param expires     URL有效期
+     * @return 文件名称到URL的映射，顺序与传入顺序一致
+     */
+    public Map<String, String> presignGetAll(String bucketName, Collection<String> objectNames, Duration expires) {
+        String targetBucket = targetBucket(bucketName);
+        Map<String, String> urls = new LinkedHashMap<>(Math.max(16, objectNames.size() * 4 / 3 + 1));
+        for (String objectName : objectNames) {
+            urls.computeIfAbsent(objectName, name -> presignGet(targetBucket, targetKey(bucketName, name), expires));
+        }
+        return urls;
+    }
+
+    /**
+     * 预签名 URL 缓存的命中统计，未启用缓存时各项均为 0
+     *
+     * @return 统计信息
+     */
+    public ExpiringCache.CacheStats getPresignCacheStats() {
+        return presignCache == null ? new ExpiringCache.CacheStats(0, 0, 0, 0) : presignCache.stats();
+    }
 
-        return getObjectRequest.url().toString();
+    private String presignGet(String targetBucket, String targetObjectName, Duration expires) {
+        return cachedPresign("GET", targetBucket, targetObjectName, expires, () -> clientFactory.presign("PresignGetObject", targetBucket, targetObjectName, () -> s3Presigner.presignGetObject(builder -> builder.getObjectRequest(b -> b.bucket(targetBucket).key(targetObjectName)).signatureDuration(expires))).url().toString());
+    }
+
+    /**
+     * 从缓存中获取预签名 URL，不存在时生成并缓存。
+     * URL 在签名后 expires 时失效，缓存时间为 expires 减去 minRemainingValidity，保证返回的 URL 至少还有 minRemainingValidity 的有效期
+     */
+    private String cachedPresign(String method, String targetBucket, String targetObjectName, Duration expires, Supplier<String> signer) {
+        if (presignCache == null) {
+            return signer.get();
+        }
+        PresignCacheKey key = new PresignCacheKey(method, targetBucket, targetObjectName, expires);
+        String url = presignCache.get(key);
+        if (url == null) {
+            url = signer.get();
+            presignCache.put(key, url, expires.minus(ossProperties.getPresignCache().getMinRemainingValidity()));
+        }
+        return url;
     }
 
     /**
@@ -277,32 +735,238 @@ public class OssTemplate implements InitializingBean {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        return s3Client.getObject(GetObjectRequest.builder().bucket(targetBucket).key(targetObjectName).build());
+        Supplier<ResponseInputStream<GetObjectResponse>> fetch = () -> diskCache != null ? diskCache.getObject(targetBucket, targetObjectName) : read(client -> client.getObject(GetObjectRequest.builder().bucket(targetBucket).key(targetObjectName).checksumMode(checksumMode).build()), ResponseInputStream::abort);
+        if (singleFlight == null) {
+            return fetch.get();
+        }
+
+        // 并发读取同一对象时只请求一次，小文件读入内存后各自返回独立的流
+        SingleFlight.Result<Object> result = singleFlight.execute(new ObjectFlightKey(targetBucket, targetObjectName), () -> shareableObject(fetch.get()));
+        SharedObject object = (SharedObject) result.value();
+        if (object.content() != null) {
+            return new ResponseInputStream<>(object.response(), new ByteArrayInputStream(object.content()));
+        }
+        // 文件较大不能共享，只有发起请求的线程可以使用这个流
+        return result.shared() ? fetch.get() : object.stream();
+    }
+
+    private SharedObject shareableObject(ResponseInputStream<GetObjectResponse> stream) {
+        Long length = stream.response().contentLength();
+        if (length == null || length > ossProperties.getSingleFlight().getMaxBodySize()) {
+            return new SharedObject(stream.response(), null, stream);
+        }
+        try (stream) {
+            return new SharedObject(stream.response(), stream.readAllBytes(), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
-     * 上传文件
+     * 下载文件并写入目标通道（如 Socket、文件）。启用 oss.disk-cache 且命中本地缓存时通过 FileChannel.transferTo 零拷贝发送
      *
      * @param bucketName bucket名称
      * @param objectName 文件名称
-     * @param stream     文件输入流
+     * @param target     目标通道，由调用方负责关闭
+     * @return 写入的字节数
+     * @throws IOException 写入失败
+     */
+    public long getObject(String bucketName, String objectName, WritableByteChannel target) throws IOException {
+        String targetBucket = targetBucket(bucketName);
+        String targetObjectName = targetKey(bucketName, objectName);
+
+        if (diskCache != null) {
+            return diskCache.transferTo(targetBucket, targetObjectName, target);
+        }
+        try (InputStream stream = read(client -> client.getObject(GetObjectRequest.builder().bucket(targetBucket).key(targetObjectName).checksumMode(checksumMode).build()), ResponseInputStream::abort)) {
+            return stream.transferTo(Channels.newOutputStream(target));
+        }
+    }
+
+    /**
+     * 本地磁盘缓存的命中统计，命中包括 ETag 校验未变化（304）的读取，未启用时各项均为 0
+     *
+     * @return 统计信息
+     */
+    public ExpiringCache.CacheStats getDiskCacheStats() {
+        return diskCache == null ? new ExpiringCache.CacheStats(0, 0, 0, 0) : diskCache.stats();
+    }
+
+    /**
+     * 本客户端成功修改或删除对象后调用，使本地缓存失效
+     *
+     * @param targetBucket 实际存储的 bucket
+     * @param targetKey    实际对象 key
+     */
+    private void onObjectChanged(String targetBucket, String targetKey) {
+        if (diskCache != null) {
+            diskCache.invalidate(targetBucket, targetKey);
+        }
+        if (singleFlight != null) {
+            // 修改后发起的读取不再共享修改前的请求
+            singleFlight.forget(new ObjectFlightKey(targetBucket, targetKey));
+            for (MetadataType type : MetadataType.values()) {
+                singleFlight.forget(new MetadataCacheKey(type, targetBucket, targetKey));
+            }
+        }
+        if (metadataCache != null) {
+            // 先增加修改计数再删除缓存：计数之前开始的读取不会再写入缓存，或者写入的结果随后被删除
+            metadataGenerations.incrementAndGet(metadataGenerationIndex(targetBucket, targetKey));
+            for (MetadataType type : MetadataType.values()) {
+                metadataCache.invalidate(new MetadataCacheKey(type, targetBucket, targetKey));
+            }
+        }
+    }
+
+    private static int metadataGenerationIndex(String targetBucket, String targetKey) {
+        return Math.floorMod(Objects.hash(targetBucket, targetKey), METADATA_GENERATION_STRIPES);
+    }
+
+    /**
+     * 从元数据缓存中读取，不存在时请求服务端并缓存。SDK 的响应对象不可变，可以直接共享
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cachedMetadata(MetadataType type, String targetBucket, String targetObjectName, Supplier<T> loader) {
+        MetadataCacheKey key = new MetadataCacheKey(type, targetBucket, targetObjectName);
+        if (metadataCache == null) {
+            return (T) loadMetadata(key, loader);
+        }
+        Object value = metadataCache.get(key);
+        if (value == null) {
+            int index = metadataGenerationIndex(targetBucket, targetObjectName);
+            long generation = metadataGenerations.get(index);
+            value = loadMetadata(key, loader);
+            // 读取期间对象被修改时结果可能是修改前的，不缓存；写入后再检查一次，覆盖写入和修改同时发生的情况
+            if (metadataGenerations.get(index) == generation) {
+                metadataCache.put(key, value, ossProperties.getMetadataCache().getTtl());
+                if (metadataGenerations.get(index) != generation) {
+                    metadataCache.invalidate(key);
+                }
+            }
+        }
+        return (T) value;
+    }
+
+    private Object loadMetadata(MetadataCacheKey key, Supplier<?> loader) {
+        return singleFlight == null ? loader.get() : singleFlight.execute(key, loader::get).value();
+    }
+
+    /**
+     * 各缓存的命中统计，key 为 bucket（桶/目录存在性）、presign、disk、metadata，未启用的缓存各项均为 0
+     *
+     * @return 缓存名称到统计信息的映射
+     */
+    public Map<String, ExpiringCache.CacheStats> getCacheStats() {
+        Map<String, ExpiringCache.CacheStats> stats = new LinkedHashMap<>();
+        stats.put("bucket", bucketExistCache.stats());
+        stats.put("presign", getPresignCacheStats());
+        stats.put("disk", getDiskCacheStats());
+        stats.put("metadata", getMetadataCacheStats());
+        return stats;
+    }
+
+    /**
+     * 分片缓冲区池的统计信息，缓冲区池由同一客户端工厂创建的模板共用
+     *
+     * @return 统计信息
+     */
+    public ByteBufferPool.Stats getBufferPoolStats() {
+        return clientFactory.bufferPool().stats();
+    }
+
+    /**
+     * 只读副本的统计信息，第一个为主 endpoint，未配置副本时为空
+     *
+     * @return 统计信息
+     */
+    public List<ReplicaRouter.ReplicaStats> getReplicaStats() {
+        return replicaRouter == null ? List.of() : replicaRouter.stats();
+    }
+
+    /**
+     * 限流和自适应并发控制的统计信息，未启用时各项均为 0
+     *
+     * @return 统计信息
+     */
+    public RequestThrottle.Stats getThrottleStats() {
+        RequestThrottle requestThrottle = clientFactory.requestThrottle();
+        return requestThrottle == null ? new RequestThrottle.Stats(0, 0, 0, 0) : requestThrottle.stats();
+    }
+
+    /**
+     * 并发读请求合并的统计信息，未启用时各项均为 0
+     *
+     * @return 统计信息
+     */
+    public SingleFlight.Stats getSingleFlightStats() {
+        return singleFlight == null ? new SingleFlight.Stats(0, 0) : singleFlight.stats();
+    }
+
+    /**
+     * 对象元数据缓存的命中统计，未启用时各项均为 0
+     *
+     * @return 统计信息
+     */
+    public ExpiringCache.CacheStats getMetadataCacheStats() {
+        return metadataCache == null ? new ExpiringCache.CacheStats(0, 0, 0, 0) : metadataCache.stats();
+    }
+
+    /**
+     * 多连接分段下载到本地文件，各段直接写入文件对应位置。
+     * 下载失败时保留进度文件，再次调用会跳过已完成的分段（对象 ETag 不变时）
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  文件名称
+     * @param destination 本地文件路径
+     * @param options     下载参数
+     * @return 下载结果
+     * @throws IOException IO异常
+     */
+    public DownloadResult downloadToFile(String bucketName, String objectName, Path destination, DownloadOptions options) throws IOException {
+        String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
+        String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+
+        return rangedDownloadEngine.download(targetBucket, targetObjectName, destination, options == null ? DownloadOptions.defaults() : options);
+    }
+
+    /**
+     * 多连接分段下载，以有序输入流的方式返回，后台并发预取后续分段
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @param options    下载参数
+     * @return 文件的二进制流
+     */
+    public InputStream getObjectParallel(String bucketName, String objectName, DownloadOptions options) {
+        String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
+        String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+
+        return rangedDownloadEngine.openStream(targetBucket, targetObjectName, options == null ? DownloadOptions.defaults() : options);
+    }
+
+    /**
+     * 上传长度未知的文件流，数据读入复用的缓冲区，不足一个分片时直接上传，否则自动切换为分片上传
+     *
+     * @param bucketName bucket名称
+     * @param objectName 文件名称
+     * @param stream     文件输入流，不会被关闭
      * @throws IOException IO异常
      */
     public void putObject(String bucketName, String objectName, InputStream stream) throws IOException {
-        putObject(bucketName, objectName, stream, stream.available(), "application/octet-stream");
+        putStream(bucketName, objectName, stream, "application/octet-stream", null, null);
     }
 
     /**
-     * 上传文件，指定contentType
+     * 上传长度未知的文件流，指定contentType，数据较大时自动切换为分片上传
      *
      * @param bucketName  bucket名称
      * @param objectName  文件名称
-     * @param stream      文件输入流
+     * @param stream      文件输入流，不会被关闭
      * @param contextType 文件类型
      * @throws IOException IO异常
      */
     public void putObject(String bucketName, String objectName, String contextType, InputStream stream) throws IOException {
-        putObject(bucketName, objectName, stream, stream.available(), contextType);
+        putStream(bucketName, objectName, stream, contextType, null, null);
     }
 
     /**
@@ -316,16 +980,60 @@ public class OssTemplate implements InitializingBean {
      * @return 上传响应对象
      */
     public PutObjectResponse putObject(String bucketName, String objectName, InputStream stream, long size, String contextType) throws IOException {
-        if (!doesBucketOrFolderExist(bucketName)) {
-            createBucket(bucketName);
-        }
+        ensureBucketOrFolderExist(bucketName);
+
+        String finalBucketName = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
+        String finalObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(finalBucketName).key(finalObjectName).contentLength(size).contentType(contextType).checksumAlgorithm(checksumAlgorithm).build();
+
+        return s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(stream, size));
+    }
+
+    /**
+     * 上传本地文件，由 SDK 直接从文件读取，不会把文件内容读入堆内存
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  文件名称
+     * @param file        本地文件路径
+     * @param contentType 文件类型
+     * @return 上传响应对象
+     */
+    public PutObjectResponse putObject(String bucketName, String objectName, Path file, String contentType) {
+        ensureBucketOrFolderExist(bucketName);
+
+        String finalBucketName = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
+        String finalObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(finalBucketName).key(finalObjectName).contentType(contentType).checksumAlgorithm(checksumAlgorithm).build();
+
+        return s3Client.putObject(putObjectRequest, RequestBody.fromFile(file));
+    }
+
+    /**
+     * 上传文件通道中的一段区域，通过定位读取直接发送，不会复制到堆内存，通道由调用方负责关闭
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  文件名称
+     * @param channel     文件通道
+     * @param position    起始位置
+     * @param length      长度
+     * @param contentType 文件类型
+     * @return 上传响应对象
+     */
+    public PutObjectResponse putObject(String bucketName, String objectName, FileChannel channel, long position, long length, String contentType) {
+        return putObject(bucketName, objectName, channel, position, length, contentType, null, null);
+    }
+
+    PutObjectResponse putObject(String bucketName, String objectName, FileChannel channel, long position, long length, String contentType, Date expiresAt, String tagging) {
+        ensureBucketOrFolderExist(bucketName);
 
         String finalBucketName = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String finalObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(finalBucketName).key(finalObjectName).contentLength(size).contentType(contextType).build();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(finalBucketName).key(finalObjectName).contentLength(length).contentType(contentType).expires(expiresAt == null ? null : expiresAt.toInstant()).tagging(tagging).checksumAlgorithm(checksumAlgorithm).build();
 
-        return s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(stream, size));
+        return s3Client.putObject(putObjectRequest, RequestBody.fromContentProvider(FileRegionContentStreamProvider.of(channel, position, length), length, contentType));
     }
 
     /**
@@ -338,7 +1046,7 @@ public class OssTemplate implements InitializingBean {
      * @throws IOException IO异常
      */
     public void putObject(String bucketName, String objectName, InputStream stream, Date expiresAt) throws IOException {
-        putObject(bucketName, objectName, stream, stream.available(), "application/octet-stream", expiresAt);
+        putStream(bucketName, objectName, stream, "application/octet-stream", expiresAt, null);
     }
 
     /**
@@ -352,7 +1060,7 @@ public class OssTemplate implements InitializingBean {
      * @throws IOException IO异常
      */
     public void putObject(String bucketName, String objectName, String contentType, InputStream stream, Date expiresAt) throws IOException {
-        putObject(bucketName, objectName, stream, stream.available(), contentType, expiresAt);
+        putStream(bucketName, objectName, stream, contentType, expiresAt, null);
     }
 
     /**
@@ -367,14 +1075,12 @@ public class OssTemplate implements InitializingBean {
      * @return 上传响应对象
      */
     public PutObjectResponse putObject(String bucketName, String objectName, InputStream stream, long size, String contentType, Date expiresAt) {
-        if (!doesBucketOrFolderExist(bucketName)) {
-            createBucket(bucketName);
-        }
+        ensureBucketOrFolderExist(bucketName);
 
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket).key(targetObjectName).contentLength(size).contentType(contentType).expires(expiresAt.toInstant()).build();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket).key(targetObjectName).contentLength(size).contentType(contentType).expires(expiresAt.toInstant()).checksumAlgorithm(checksumAlgorithm).build();
 
         return s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(stream, size));
     }
@@ -387,11 +1093,30 @@ public class OssTemplate implements InitializingBean {
      * @param content    文件内容
      */
     public void putObject(String bucketName, String objectName, byte[] content) {
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(bucketName).key(objectName).contentLength((long) content.length).build();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(bucketName).key(objectName).contentLength((long) content.length).checksumAlgorithm(checksumAlgorithm).build();
 
         s3Client.putObject(putObjectRequest, RequestBody.fromBytes(content));
     }
 
+    /**
+     * 上传缓冲区中 position 到 limit 之间的数据，不改变缓冲区的位置，失败重试时可以重复读取
+     */
+    PutObjectResponse putObject(String bucketName, String objectName, ByteBuffer buffer, String contentType, Date expiresAt, String tagging) {
+        ensureBucketOrFolderExist(bucketName);
+
+        int length = buffer.remaining();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).contentLength((long) length).contentType(contentType).expires(expiresAt == null ? null : expiresAt.toInstant()).tagging(tagging).checksumAlgorithm(checksumAlgorithm).build();
+
+        return s3Client.putObject(putObjectRequest, RequestBody.fromContentProvider(ByteBufferContentStreamProvider.of(buffer), length, contentType));
+    }
+
+    /**
+     * 上传长度未知的输入流，不再使用 available() 作为长度
+     */
+    private void putStream(String bucketName, String objectName, InputStream stream, String contentType, Date expiresAt, String tagging) throws IOException {
+        multipartUploadEngine.upload(bucketName, objectName, stream, LargeUploadOptions.builder().contentType(contentType).expiresAt(expiresAt).tagging(tagging).build());
+    }
+
     /**
      * 上传文件并设置自动删除时间
      *
@@ -402,8 +1127,7 @@ public class OssTemplate implements InitializingBean {
      * @throws IOException IO异常
      */
     public void putObjectWithExpiration(String bucketName, String objectName, InputStream stream, long durationInDays) throws IOException {
-        putObject(bucketName, objectName, stream, stream.available(), "application/octet-stream");
-        setLifecycleRule(bucketName, objectName, durationInDays);
+        putStream(bucketName, objectName, stream, "application/octet-stream", null, expirationTagging(bucketName, durationInDays));
     }
 
     /**
@@ -417,8 +1141,7 @@ public class OssTemplate implements InitializingBean {
      * @throws IOException IO异常
      */
     public void putObjectWithExpiration(String bucketName, String objectName, String contentType, InputStream stream, long durationInDays) throws IOException {
-        putObject(bucketName, objectName, stream, stream.available(), contentType);
-        setLifecycleRule(bucketName, objectName, durationInDays);
+        putStream(bucketName, objectName, stream, contentType, null, expirationTagging(bucketName, durationInDays));
     }
 
     /**
@@ -434,47 +1157,146 @@ public class OssTemplate implements InitializingBean {
      * @throws IOException IO异常
      */
     public PutObjectResponse putObjectWithExpiration(String bucketName, String objectName, InputStream stream, long size, String contentType, long durationInDays) throws IOException {
-        PutObjectResponse response = putObject(bucketName, objectName, stream, size, contentType);
-        setLifecycleRule(bucketName, objectName, durationInDays);
-        return response;
+        String tagging = expirationTagging(bucketName, durationInDays);
+        ensureBucketOrFolderExist(bucketName);
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket(bucketName)).key(targetKey(bucketName, objectName)).contentLength(size).contentType(contentType).tagging(tagging).checksumAlgorithm(checksumAlgorithm).build();
+
+        return s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(stream, size));
     }
 
     /**
-     * 为指定的对象设置生命周期规则，以便在指定的天数后自动删除。
+     * 按天数过期的对象标签。每个天数在桶上对应一条按标签匹配的生命周期规则，首次使用时合并到桶的配置中，
+     * 之后上传只需要在请求中带上标签，不再修改桶配置
      *
      * @param bucketName     桶名称
-     * @param objectName     文件名称
      * @param expirationDays 过期天数
+     * @return 标签，URL 查询字符串格式
      */
-    private void setLifecycleRule(String bucketName, String objectName, long expirationDays) {
-        String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
-        String targetPrefix = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+    private String expirationTagging(String bucketName, long expirationDays) {
+        if (expirationDays < 1 || expirationDays > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("过期天数无效: " + expirationDays);
+        }
+        int days = (int) expirationDays;
+        lifecycleManager.mergeRules(targetBucket(bucketName), List.of(LifecycleManager.expireByTagRule(days)));
+        return LifecycleManager.EXPIRE_DAYS_TAG + "=" + days;
+    }
 
-        LifecycleRule rule = LifecycleRule.builder().id("AutoDelete-" + objectName).filter(LifecycleRuleFilter.builder().prefix(targetPrefix).build()).expiration(LifecycleExpiration.builder().days((int) expirationDays).build()).status(ExpirationStatus.ENABLED).build();
+    /**
+     * 按规则 ID 合并生命周期规则：同 ID 的规则被替换，桶上的其他规则保留，内容没有变化时不写入
+     *
+     * @param bucketName 桶名称，BASE_BUCKET 模式下规则设置在 BASE_BUCKET 上，前缀需要包含目录
+     * @param rules      规则，必须有 ID
+     * @return 是否修改了桶的配置
+     */
+    public boolean mergeLifecycleRules(String bucketName, Collection<LifecycleRule> rules) {
+        return lifecycleManager.mergeRules(targetBucket(bucketName), rules);
+    }
 
-        BucketLifecycleConfiguration configuration = BucketLifecycleConfiguration.builder().rules(rule).build();
+    /**
+     * 按规则 ID 删除生命周期规则，桶上的其他规则保留
+     *
+     * @param bucketName 桶名称
+     * @param ruleIds    规则 ID
+     * @return 是否修改了桶的配置
+     */
+    public boolean removeLifecycleRules(String bucketName, Collection<String> ruleIds) {
+        return lifecycleManager.removeRules(targetBucket(bucketName), ruleIds);
+    }
 
-        s3Client.putBucketLifecycleConfiguration(PutBucketLifecycleConfigurationRequest.builder().bucket(targetBucket).lifecycleConfiguration(configuration).build());
+    /**
+     * 桶上的全部生命周期规则
+     *
+     * @param bucketName 桶名称
+     * @return 规则，没有配置时为空
+     */
+    public List<LifecycleRule> getLifecycleRules(String bucketName) {
+        return lifecycleManager.currentRules(targetBucket(bucketName));
     }
 
     /**
-     * 如果对象元数据中得过期时间已到，则删除所有过期对象
+     * 如果对象元数据中得过期时间已到，则删除所有过期对象。
+     * 分页遍历整个桶（BASE_BUCKET 模式下为对应目录），并发读取对象元数据，过期对象按批使用 DeleteObjects 删除
      *
      * @param bucketName 桶名称
+     * @return 清理结果
+     * @throws UncheckedIOException 等待时被中断
      */
-    public void cleanupExpiredObjects(String bucketName) {
-        String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
-        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(bucketName).build());
+    public CleanupResult cleanupExpiredObjects(String bucketName) {
+        long startNanos = System.nanoTime();
+        String targetBucket = targetBucket(bucketName);
+        int headConcurrency = Math.max(1, ossProperties.getBatch().getHeadConcurrency());
+        Semaphore permits = new Semaphore(headConcurrency);
+        Queue<String> expiredKeys = new ConcurrentLinkedQueue<>();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        AtomicLong expiredCount = new AtomicLong();
+        long scannedCount = 0;
+        long now = System.currentTimeMillis();
+        BatchDeleter deleter = batchDeleter(targetBucket);
+        DeleteResult deleteResult;
+
+        try {
+            Iterator<S3Object> iterator = iterateObjectsByPrefix(bucketName, "", true);
+            while (iterator.hasNext()) {
+                String key = iterator.next().key();
+                scannedCount++;
+                permits.acquire();
+                try {
+                    workerExecutor.execute(() -> {
+                        try {
+                            HeadObjectResponse headObjectResponse = s3Client.headObject(HeadObjectRequest.builder().bucket(targetBucket).key(key).build());
+                            String expiresAt = expiresAtMetadata(headObjectResponse.metadata());
+                            if (expiresAt != null && Long.parseLong(expiresAt) < now) {
+                                expiredCount.incrementAndGet();
+                                expiredKeys.add(key);
+                            }
+                        } catch (RuntimeException e) {
+                            errors.put(key, String.valueOf(e.getMessage()));
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                // 删除批次由遍历线程提交，避免 HEAD 任务在同一线程池中等待删除任务
+                drainTo(expiredKeys, deleter);
+            }
+            permits.acquire(headConcurrency);
+            permits.release(headConcurrency);
+            drainTo(expiredKeys, deleter);
+            deleteResult = deleter.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("清理过期对象被中断"));
+        } catch (InterruptedIOException e) {
+            throw new UncheckedIOException(e);
+        }
+        errors.putAll(deleteResult.getErrors());
 
-        for (S3Object s3Object : response.contents()) {
-            HeadObjectResponse headObjectResponse = s3Client.headObject(HeadObjectRequest.builder().bucket(targetBucket).key(s3Object.key()).build());
+        CleanupResult result = new CleanupResult(scannedCount, expiredCount.get(), deleteResult.getDeletedCount(), Map.copyOf(errors), Duration.ofNanos(System.nanoTime() - startNanos));
+        log.info("清理过期对象完成 bucket={} 扫描={} 过期={} 删除={} 失败={} 耗时={}ms", bucketName, result.getScannedCount(), result.getExpiredCount(), result.getDeletedCount(), errors.size(), result.getElapsed().toMillis());
+        return result;
+    }
 
-            String expiresAt = headObjectResponse.metadata().get("expiresAt");
-            if (expiresAt != null && Long.parseLong(expiresAt) < System.currentTimeMillis()) {
-                // 删除过期的对象
-                s3Client.deleteObject(DeleteObjectRequest.builder().bucket(targetBucket).key(s3Object.key()).build());
+    /**
+     * 服务端返回的用户元数据 key 一般会被转成小写，这里忽略大小写读取 expiresAt
+     */
+    private static String expiresAtMetadata(Map<String, String> metadata) {
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            if ("expiresAt".equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
             }
         }
+        return null;
+    }
+
+    private static void drainTo(Queue<String> keys, BatchDeleter deleter) throws InterruptedIOException {
+        String key;
+        while ((key = keys.poll()) != null) {
+            deleter.add(key);
+        }
     }
 
     /**
@@ -488,7 +1310,7 @@ public class OssTemplate implements InitializingBean {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        return s3Client.headObject(HeadObjectRequest.builder().bucket(targetBucket).key(targetObjectName).build());
+        return cachedMetadata(MetadataType.HEAD, targetBucket, targetObjectName, () -> read(client -> client.headObject(HeadObjectRequest.builder().bucket(targetBucket).key(targetObjectName).build()), null));
     }
 
     /**
@@ -504,6 +1326,48 @@ public class OssTemplate implements InitializingBean {
         s3Client.deleteObject(DeleteObjectRequest.builder().bucket(finalBucketName).key(finalObjectName).build());
     }
 
+    /**
+     * 批量删除文件，每个 DeleteObjects 请求最多删除 1000 个对象，多个批次并发执行
+     *
+     * @param bucketName  bucket名称
+     * @param objectNames 文件名称
+     * @return 删除结果，失败的对象以实际对象 key 记录
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public DeleteResult removeObjects(String bucketName, Collection<String> objectNames) throws InterruptedIOException {
+        BatchDeleter deleter = batchDeleter(targetBucket(bucketName));
+        for (String objectName : objectNames) {
+            deleter.add(targetKey(bucketName, objectName));
+        }
+        return deleter.finish();
+    }
+
+    /**
+     * 删除指定前缀下的所有文件，分页列出的同时按批删除，不会把所有 key 读入内存
+     *
+     * @param bucketName bucket名称
+     * @param prefix     对象前缀，为空时删除整个桶（BASE_BUCKET 模式下为整个目录）中的对象
+     * @return 删除结果，失败的对象以实际对象 key 记录
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public DeleteResult removePrefix(String bucketName, String prefix) throws InterruptedIOException {
+        // bucketName 为空时 BASE_BUCKET 模式下的前缀会覆盖整个 BASE_BUCKET
+        Assert.hasText(bucketName, "bucketName 不能为空");
+        BatchDeleter deleter = batchDeleter(targetBucket(bucketName));
+        Iterator<S3Object> iterator = iterateObjectsByPrefix(bucketName, prefix, true);
+        while (iterator.hasNext()) {
+            deleter.add(iterator.next().key());
+        }
+        DeleteResult result = deleter.finish();
+        log.info("删除前缀 {}/{} 完成，删除 {} 个对象，失败 {} 个", bucketName, prefix, result.getDeletedCount(), result.getErrors().size());
+        return result;
+    }
+
+    BatchDeleter batchDeleter(String targetBucket) {
+        OssProperties.Batch batch = ossProperties.getBatch();
+        return new BatchDeleter(s3Client, targetBucket, workerExecutor, batch.getDeleteBatchSize(), batch.getDeleteConcurrency());
+    }
+
     /**
      * 上传文件并进行服务器端加密 使用默认得AES256 作为服务器端加密避免服务端出现没有配置KMS 密钥导致得问题
      *
@@ -515,15 +1379,13 @@ public class OssTemplate implements InitializingBean {
      * @return 上传响应对象
      */
     public PutObjectResponse uploadWithEncryption(String bucketName, String objectName, InputStream stream, long size, String contentType) throws IOException {
-        if (!doesBucketOrFolderExist(bucketName)) {
-            createBucket(bucketName);
-        }
+        ensureBucketOrFolderExist(bucketName);
 
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
         // 使用 AES256 作为服务器端加密
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket).key(targetObjectName).contentLength(size).contentType(contentType).serverSideEncryption(ServerSideEncryption.AES256).build();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket).key(targetObjectName).contentLength(size).contentType(contentType).serverSideEncryption(ServerSideEncryption.AES256).checksumAlgorithm(checksumAlgorithm).build();
 
         return s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(stream, size));
     }
@@ -540,14 +1402,12 @@ public class OssTemplate implements InitializingBean {
      * @return 上传响应对象
      */
     public PutObjectResponse putObjectWithEncryption(String bucketName, String objectName, InputStream stream, long size, String contentType, String sseAlgorithm) {
-        if (!doesBucketOrFolderExist(bucketName)) {
-            createBucket(bucketName);
-        }
+        ensureBucketOrFolderExist(bucketName);
 
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket).key(targetObjectName).contentLength(size).contentType(contentType).serverSideEncryption(ServerSideEncryption.fromValue(sseAlgorithm)).build();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder().bucket(targetBucket).key(targetObjectName).contentLength(size).contentType(contentType).serverSideEncryption(ServerSideEncryption.fromValue(sseAlgorithm)).checksumAlgorithm(checksumAlgorithm).build();
 
         return s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(stream, size));
     }
@@ -560,14 +1420,28 @@ public class OssTemplate implements InitializingBean {
      * @return 上传ID
      */
     public String initiateMultipartUpload(String bucketName, String objectName) {
-        if (!doesBucketOrFolderExist(bucketName)) {
-            createBucket(bucketName);
-        }
+        return initiateMultipartUpload(bucketName, objectName, null);
+    }
+
+    /**
+     * 初始化分片上传，指定contentType
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  对象名称
+     * @param contentType 文件类型
+     * @return 上传ID
+     */
+    public String initiateMultipartUpload(String bucketName, String objectName, String contentType) {
+        return initiateMultipartUpload(bucketName, objectName, contentType, null, null);
+    }
+
+    String initiateMultipartUpload(String bucketName, String objectName, String contentType, Date expiresAt, String tagging) {
+        ensureBucketOrFolderExist(bucketName);
 
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        CreateMultipartUploadResponse response = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(targetBucket).key(targetObjectName).build());
+        CreateMultipartUploadResponse response = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(targetBucket).key(targetObjectName).contentType(contentType).expires(expiresAt == null ? null : expiresAt.toInstant()).tagging(tagging).checksumAlgorithm(checksumAlgorithm).build());
 
         // 判断是否生成临时文件标识
         if (ossProperties.getTempMarker() == 1) {
@@ -593,12 +1467,80 @@ public class OssTemplate implements InitializingBean {
      * @return 已完成的部分
      */
     public CompletedPart uploadPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] buffer) {
+        return uploadPart(bucketName, objectName, uploadId, partNumber, RequestBody.fromBytes(buffer), buffer.length);
+    }
+
+    /**
+     * 上传部分，使用缓冲区中的一段数据，不会复制数组，适合复用缓冲区的场景
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @param partNumber 部分编号
+     * @param buffer     缓冲区
+     * @param offset     数据在缓冲区中的起始位置
+     * @param length     数据长度
+     * @return 已完成的部分
+     */
+    public CompletedPart uploadPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] buffer, int offset, int length) {
+        return uploadPart(bucketName, objectName, uploadId, partNumber, RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer, offset, length), length, "application/octet-stream"), length);
+    }
+
+    /**
+     * 上传部分，发送缓冲区中 position 到 limit 之间的数据，不改变缓冲区的位置，也不会复制数据。
+     * 可以配合 {@link com.alltobs.oss.support.ByteBufferPool} 复用堆外缓冲区
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @param partNumber 部分编号
+     * @param buffer     缓冲区
+     * @return 已完成的部分
+     */
+    public CompletedPart uploadPart(String bucketName, String objectName, String uploadId, int partNumber, ByteBuffer buffer) {
+        int length = buffer.remaining();
+        return uploadPart(bucketName, objectName, uploadId, partNumber, RequestBody.fromContentProvider(ByteBufferContentStreamProvider.of(buffer), length, "application/octet-stream"), length);
+    }
+
+    /**
+     * 上传部分，直接读取文件中的一段区域，不会复制到堆内存
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @param partNumber 部分编号
+     * @param file       本地文件路径
+     * @param position   分片在文件中的起始位置
+     * @param length     分片长度
+     * @return 已完成的部分
+     */
+    public CompletedPart uploadPart(String bucketName, String objectName, String uploadId, int partNumber, Path file, long position, long length) {
+        return uploadPart(bucketName, objectName, uploadId, partNumber, RequestBody.fromContentProvider(FileRegionContentStreamProvider.of(file, position, length), length, "application/octet-stream"), length);
+    }
+
+    /**
+     * 上传部分，通过定位读取文件通道中的一段区域，不会复制到堆内存。
+     * 定位读取不改变通道位置，多个分片可以共用同一个通道并发上传，通道由调用方负责关闭
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @param partNumber 部分编号
+     * @param channel    文件通道
+     * @param position   分片在文件中的起始位置
+     * @param length     分片长度
+     * @return 已完成的部分
+     */
+    public CompletedPart uploadPart(String bucketName, String objectName, String uploadId, int partNumber, FileChannel channel, long position, long length) {
+        return uploadPart(bucketName, objectName, uploadId, partNumber, RequestBody.fromContentProvider(FileRegionContentStreamProvider.of(channel, position, length), length, "application/octet-stream"), length);
+    }
 
+    private CompletedPart uploadPart(String bucketName, String objectName, String uploadId, int partNumber, RequestBody requestBody, long length) {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder().bucket(targetBucket).key(targetObjectName).uploadId(uploadId).partNumber(partNumber).contentLength((long) buffer.length).build(), RequestBody.fromBytes(buffer));
-        return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+        UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder().bucket(targetBucket).key(targetObjectName).uploadId(uploadId).partNumber(partNumber).contentLength(length).checksumAlgorithm(checksumAlgorithm).build(), requestBody);
+        return Checksums.completedPart(partNumber, response);
     }
 
     /**
@@ -613,9 +1555,8 @@ public class OssTemplate implements InitializingBean {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        ListPartsResponse response = s3Client.listParts(ListPartsRequest.builder().bucket(targetBucket).key(targetObjectName).uploadId(uploadId).build());
-
-        return response.parts().stream().map(p -> CompletedPart.builder().partNumber(p.partNumber()).eTag(p.eTag()).build()).collect(Collectors.toList());
+        // 超过 1000 个分片时分页获取
+        return s3Client.listPartsPaginator(ListPartsRequest.builder().bucket(targetBucket).key(targetObjectName).uploadId(uploadId).build()).parts().stream().map(Checksums::completedPart).collect(Collectors.toList());
     }
 
     /**
@@ -625,19 +1566,21 @@ public class OssTemplate implements InitializingBean {
      * @param objectName     对象名称
      * @param uploadId       上传ID
      * @param completedParts 已完成的部分
+     * @return 完成响应
      */
-    public void completeMultipartUpload(String bucketName, String objectName, String uploadId, List<CompletedPart> completedParts) {
+    public CompleteMultipartUploadResponse completeMultipartUpload(String bucketName, String objectName, String uploadId, List<CompletedPart> completedParts) {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
         CompletedMultipartUpload completedMultipartUpload = CompletedMultipartUpload.builder().parts(completedParts).build();
-        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(targetBucket).key(targetObjectName).uploadId(uploadId).multipartUpload(completedMultipartUpload).build());
+        CompleteMultipartUploadResponse response = s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(targetBucket).key(targetObjectName).uploadId(uploadId).multipartUpload(completedMultipartUpload).build());
 
         if (ossProperties.getTempMarker() == 1) {
             // 删除标记文件
             String markerFileName = objectName + ossProperties.getMarkerName();
             removeObject(bucketName, markerFileName);
         }
+        return response;
     }
 
     /**
@@ -660,6 +1603,76 @@ public class OssTemplate implements InitializingBean {
         }
     }
 
+    /**
+     * 大文件上传，自动计算分片大小并在线程池中并发上传分片，小于一个分片时直接上传。
+     * 任意分片失败时会放弃整个分片上传。
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param file       本地文件
+     * @param options    上传参数
+     * @return 上传结果
+     * @throws IOException IO异常
+     */
+    public UploadResult uploadLargeFile(String bucketName, String objectName, Path file, LargeUploadOptions options) throws IOException {
+        return multipartUploadEngine.upload(bucketName, objectName, file, options == null ? LargeUploadOptions.defaults() : options);
+    }
+
+    /**
+     * 大文件上传，按分片大小顺序读取输入流，读取的同时并发上传已读取的分片，数据小于一个分片时直接上传。
+     * 任意分片失败时会放弃整个分片上传。
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param stream     文件输入流，不会被关闭
+     * @param options    上传参数，可通过 contentLength 指定预计大小以计算分片大小
+     * @return 上传结果
+     * @throws IOException IO异常
+     */
+    public UploadResult uploadLargeFile(String bucketName, String objectName, InputStream stream, LargeUploadOptions options) throws IOException {
+        return multipartUploadEngine.upload(bucketName, objectName, stream, options == null ? LargeUploadOptions.defaults() : options);
+    }
+
+    /**
+     * 设置可续传分片上传的会话存储，需要在初始化之前调用，未设置时使用 oss.upload-session.directory 下的日志文件
+     *
+     * @param uploadSessionStore 会话存储
+     */
+    public void setUploadSessionStore(UploadSessionStore uploadSessionStore) {
+        this.uploadSessionStore = uploadSessionStore;
+    }
+
+    /**
+     * 设置所属的 oss.profiles 名称，需要在初始化之前调用。共用同一个会话存储的模板只处理各自名称下的会话
+     *
+     * @param profile 配置名称，默认模板为 null
+     */
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * 使用共用的后台任务线程池，需要在初始化之前调用，销毁模板时不会关闭该线程池。
+     * 未设置时按 oss.worker-threads 单独创建
+     *
+     * @param workerExecutor 线程池
+     */
+    public void setWorkerExecutor(ExecutorService workerExecutor) {
+        this.workerExecutor = workerExecutor;
+    }
+
+    /**
+     * 可续传分片上传，需要配置 oss.upload-session.enabled=true
+     *
+     * @return 上传会话管理
+     */
+    public UploadSessionManager getUploadSessionManager() {
+        if (uploadSessionManager == null) {
+            throw new IllegalStateException("未启用可续传分片上传，请配置 oss.upload-session.enabled=true");
+        }
+        return uploadSessionManager;
+    }
+
     /**
      * 启用或禁用对象版本控制
      *
@@ -673,7 +1686,8 @@ public class OssTemplate implements InitializingBean {
     }
 
     /**
-     * 复制对象
+     * 复制对象，先直接使用单个 CopyObject，源对象超过 5GB 时自动拆分为多个 UploadPartCopy 并发复制。
+     * 已知对象大小时使用 {@link #copyObject(String, String, long, String, String)}，大对象可以并发分片复制
      *
      * @param sourceBucketName      源bucket名称
      * @param sourceKey             源对象key
@@ -688,10 +1702,61 @@ public class OssTemplate implements InitializingBean {
         String targetDestinationBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : destinationBucketName;
         String targetDestinationKey = StringUtils.hasText(BASE_BUCKET) ? destinationBucketName + "/" + destinationKey : destinationKey;
 
-        // 构建 CopyObjectRequest 并执行复制操作
-        CopyObjectRequest copyObjectRequest = CopyObjectRequest.builder().sourceBucket(targetSourceBucket).sourceKey(targetSourceKey).destinationBucket(targetDestinationBucket).destinationKey(targetDestinationKey).build();
+        try {
+            copyEngine.copy(targetSourceBucket, targetSourceKey, targetDestinationBucket, targetDestinationKey);
+        } catch (InterruptedIOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 复制大小已知的对象，小对象使用单个 CopyObject，超过 oss.copy.multipart-threshold 时并发分片复制
+     *
+     * @param sourceBucketName      源bucket名称
+     * @param sourceKey             源对象key
+     * @param size                  源对象大小，例如列表或 getObjectInfo 返回的大小
+     * @param destinationBucketName 目标bucket名称
+     * @param destinationKey        目标对象key
+     */
+    public void copyObject(String sourceBucketName, String sourceKey, long size, String destinationBucketName, String destinationKey) {
+        try {
+            copyEngine.copy(targetBucket(sourceBucketName), targetKey(sourceBucketName, sourceKey), size, targetBucket(destinationBucketName), targetKey(destinationBucketName, destinationKey));
+        } catch (InterruptedIOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 服务端复制前缀下的所有对象，并发数受 oss.copy.concurrency 限制，大对象自动分片复制。
+     * 例如把 a/b/1.txt 从前缀 a/ 复制到 c/ 后为 c/b/1.txt
+     *
+     * @param sourceBucketName      源bucket名称
+     * @param sourcePrefix          源前缀，为空字符串时复制整个 bucket
+     * @param destinationBucketName 目标bucket名称
+     * @param destinationPrefix     目标前缀
+     * @return 复制结果，单个对象失败不会中断其他对象
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public CopyResult copyPrefix(String sourceBucketName, String sourcePrefix, String destinationBucketName, String destinationPrefix) throws InterruptedIOException {
+        CopyResult result = copyEngine.copyPrefix(targetBucket(sourceBucketName), targetKey(sourceBucketName, sourcePrefix), targetBucket(destinationBucketName), targetKey(destinationBucketName, destinationPrefix), false);
+        log.info("复制前缀 {}/{} 到 {}/{} 完成，复制 {} 个对象，失败 {} 个，耗时 {}", sourceBucketName, sourcePrefix, destinationBucketName, destinationPrefix, result.getCopiedCount(), result.getErrors().size(), result.getElapsed());
+        return result;
+    }
 
-        s3Client.copyObject(copyObjectRequest);
+    /**
+     * 移动前缀下的所有对象，每个对象复制成功后批量删除源对象，复制失败的对象保留在原位置
+     *
+     * @param sourceBucketName      源bucket名称
+     * @param sourcePrefix          源前缀
+     * @param destinationBucketName 目标bucket名称
+     * @param destinationPrefix     目标前缀
+     * @return 移动结果
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public CopyResult movePrefix(String sourceBucketName, String sourcePrefix, String destinationBucketName, String destinationPrefix) throws InterruptedIOException {
+        CopyResult result = copyEngine.copyPrefix(targetBucket(sourceBucketName), targetKey(sourceBucketName, sourcePrefix), targetBucket(destinationBucketName), targetKey(destinationBucketName, destinationPrefix), true);
+        log.info("移动前缀 {}/{} 到 {}/{} 完成，复制 {} 个对象，删除 {} 个，失败 {} 个，耗时 {}", sourceBucketName, sourcePrefix, destinationBucketName, destinationPrefix, result.getCopiedCount(), result.getDeletedCount(), result.getErrors().size(), result.getElapsed());
+        return result;
     }
 
     /**
@@ -719,11 +1784,11 @@ public class OssTemplate implements InitializingBean {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        return s3Client.getObjectAcl(GetObjectAclRequest.builder().bucket(targetBucket).key(targetObjectName).build());
+        return cachedMetadata(MetadataType.ACL, targetBucket, targetObjectName, () -> s3Client.getObjectAcl(GetObjectAclRequest.builder().bucket(targetBucket).key(targetObjectName).build()));
     }
 
     /**
-     * 设置对象标签
+     * 设置对象标签，会覆盖对象的全部标签，包括 putObjectWithExpiration 设置的 oss-expire-days
      *
      * @param bucketName bucket名称
      * @param objectName 对象名称
@@ -749,35 +1814,56 @@ public class OssTemplate implements InitializingBean {
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        GetObjectTaggingResponse taggingResponse = s3Client.getObjectTagging(GetObjectTaggingRequest.builder().bucket(targetBucket).key(targetObjectName).build());
+        GetObjectTaggingResponse taggingResponse = cachedMetadata(MetadataType.TAGS, targetBucket, targetObjectName, () -> s3Client.getObjectTagging(GetObjectTaggingRequest.builder().bucket(targetBucket).key(targetObjectName).build()));
 
         return taggingResponse.tagSet().stream().collect(Collectors.toMap(Tag::key, Tag::value));
     }
 
     /**
-     * 创建子目录并设置生命周期规则
+     * 创建子目录并设置生命周期规则，同一个桶上的规则合并后一次写入
      *
-     * @param subBucketName  子目录名称
-     * @param expirationDays 存储天数，超过该天数后自动删除
+     * @param expiringBuckets key 为子目录名称，value 为存储天数，超过该天数后自动删除
      */
-    private void createBucketFolderWithExpiration(String subBucketName, int expirationDays) {
-        // 基于 BASE_BUCKET 创建目录
-        createBucket(subBucketName);
-
-        String folderPrefix = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET + "/" + subBucketName + "/" : subBucketName + "/";
-
-        // 设置生命周期规则
-        LifecycleRule rule = LifecycleRule.builder().id("AutoDeleteRule-" + subBucketName).filter(LifecycleRuleFilter.builder().prefix(folderPrefix).build()).expiration(LifecycleExpiration.builder().days(expirationDays).build()).status(ExpirationStatus.ENABLED).build();
-
-        PutBucketLifecycleConfigurationRequest configurationRequest = PutBucketLifecycleConfigurationRequest.builder().bucket(StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : subBucketName).lifecycleConfiguration(BucketLifecycleConfiguration.builder().rules(rule).build()).build();
+    private void createBucketFoldersWithExpiration(Map<String, Integer> expiringBuckets) {
+        Map<String, List<LifecycleRule>> rulesByBucket = new LinkedHashMap<>();
+        expiringBuckets.forEach((subBucketName, expirationDays) -> {
+            // 基于 BASE_BUCKET 创建目录
+            createBucket(subBucketName);
+            rulesByBucket.computeIfAbsent(targetBucket(subBucketName), k -> new ArrayList<>()).add(folderExpirationRule(subBucketName, expirationDays));
+        });
+        rulesByBucket.forEach((bucket, rules) -> {
+            try {
+                lifecycleManager.mergeRules(bucket, rules);
+            } catch (Exception e) {
+                log.error("创建子目录并设置生命周期规则失败：{}", e.getMessage());
+            }
+        });
+    }
 
+    /**
+     * 后台初始化使用，失败时抛出异常以便重试
+     */
+    private void provisionBucketFolderWithExpiration(String subBucketName, int expirationDays) {
+        createBucket(subBucketName);
         try {
-            s3Client.putBucketLifecycleConfiguration(configurationRequest);
-        } catch (Exception e) {
+            lifecycleManager.mergeRules(targetBucket(subBucketName), List.of(folderExpirationRule(subBucketName, expirationDays)));
+        } catch (SdkServiceException e) {
+            // 不支持生命周期或没有权限时重试也不会成功，与同步初始化一样只记录错误
+            if (e.isThrottlingException() || (e.statusCode() >= 500 && e.statusCode() != 501)) {
+                throw e;
+            }
             log.error("创建子目录并设置生命周期规则失败：{}", e.getMessage());
         }
     }
 
+    /**
+     * 子目录的过期规则。BASE_BUCKET 模式下对象 key 以子目录开头，前缀为 子目录/；否则子目录本身是桶，规则作用于整个桶
+     */
+    private LifecycleRule folderExpirationRule(String subBucketName, int expirationDays) {
+        String folderPrefix = StringUtils.hasText(BASE_BUCKET) ? subBucketName + "/" : "";
+        return LifecycleManager.expireByPrefixRule("AutoDeleteRule-" + subBucketName, folderPrefix, expirationDays);
+    }
+
     /**
      * 生成用于直接上传的预签名URL
      *
@@ -787,16 +1873,16 @@ public class OssTemplate implements InitializingBean {
      * @return 预签名的URL
      */
     public String generatePreSignedUrlForPut(String bucketName, String objectName, int expiration) {
-        if (!doesBucketOrFolderExist(bucketName)) {
-            createBucket(bucketName);
-        }
+        ensureBucketOrFolderExist(bucketName);
 
         String targetBucket = StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
         String targetObjectName = StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
 
-        PresignedPutObjectRequest preSignedRequest = s3Presigner.presignPutObject(builder -> builder.putObjectRequest(por -> por.bucket(targetBucket).key(targetObjectName)).signatureDuration(Duration.ofMinutes(expiration)));
-
-        return preSignedRequest.url().toString();
+        Duration expires = Duration.ofMinutes(expiration);
+        return cachedPresign("PUT", targetBucket, targetObjectName, expires, () -> {
+            PresignedPutObjectRequest preSignedRequest = clientFactory.presign("PresignPutObject", targetBucket, targetObjectName, () -> s3Presigner.presignPutObject(builder -> builder.putObjectRequest(por -> por.bucket(targetBucket).key(targetObjectName)).signatureDuration(expires)));
+            return preSignedRequest.url().toString();
+        });
     }
 
     /**
@@ -820,21 +1906,23 @@ public class OssTemplate implements InitializingBean {
             folderName = folderName.endsWith("/") ? folderName : folderName + "/";
         }
 
-        // 列出指定目录下的所有对象
-        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build());
-
         // 获取所有目录和文件
-        List<String> result = new ArrayList<>();
-
-        // 处理文件夹（以 "/" 结尾）
-        result.addAll(response.commonPrefixes().stream().map(prefix -> prefix.prefix().replaceAll("/$", "")) // 去除末尾的 '/'
-                .toList());
-
-        // 过滤文件，检查文件扩展名
-        result.addAll(response.contents().stream().map(S3Object::key).filter(fileName -> Arrays.stream(fileExtensions).toList().stream().anyMatch(fileName::endsWith)) // 过滤指定类型的文件
-                .toList());
-
-        return result;
+        List<String> folders = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+
+        // 逐页列出指定目录下的所有对象
+        streamPages(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build(), true).forEach(response -> {
+            // 处理文件夹（以 "/" 结尾）
+            response.commonPrefixes().stream().map(prefix -> prefix.prefix().replaceAll("/$", "")) // 去除末尾的 '/'
+                    .forEach(folders::add);
+
+            // 过滤文件，检查文件扩展名
+            response.contents().stream().map(S3Object::key).filter(fileName -> Arrays.stream(fileExtensions).anyMatch(fileName::endsWith)) // 过滤指定类型的文件
+                    .forEach(files::add);
+        });
+
+        folders.addAll(files);
+        return folders;
     }
 
     /**
@@ -852,20 +1940,22 @@ public class OssTemplate implements InitializingBean {
             folderName = folderName.endsWith("/") ? folderName : folderName + "/";
         }
 
-        // 列出指定目录下的所有对象
-        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build());
-
         // 获取所有目录和文件
-        List<String> result = new ArrayList<>();
+        List<String> folders = new ArrayList<>();
+        List<String> files = new ArrayList<>();
 
-        // 处理文件夹（以 "/" 结尾）
-        result.addAll(response.commonPrefixes().stream().map(prefix -> prefix.prefix().replaceAll("/$", "")) // 去除末尾的 '/'
-                .toList());
+        // 逐页列出指定目录下的所有对象
+        streamPages(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build(), true).forEach(response -> {
+            // 处理文件夹（以 "/" 结尾）
+            response.commonPrefixes().stream().map(prefix -> prefix.prefix().replaceAll("/$", "")) // 去除末尾的 '/'
+                    .forEach(folders::add);
 
-        // 添加所有文件
-        result.addAll(response.contents().stream().map(S3Object::key).toList());
+            // 添加所有文件
+            response.contents().stream().map(S3Object::key).forEach(files::add);
+        });
 
-        return result;
+        folders.addAll(files);
+        return folders;
     }
 
     /**
@@ -889,14 +1979,9 @@ public class OssTemplate implements InitializingBean {
             folderName = folderName.endsWith("/") ? folderName : folderName + "/";
         }
 
-        // 列出指定目录下的所有对象
-        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build());
-
-        // 过滤文件，检查文件扩展名
-        // 过滤指定类型的文件
-
-        return new ArrayList<>(response.contents().stream().map(S3Object::key).filter(fileName -> Arrays.stream(fileExtensions).toList().stream().anyMatch(fileName::endsWith)) // 过滤指定类型的文件
-                .toList());
+        // 逐页列出指定目录下的所有对象，过滤文件，检查文件扩展名
+        return streamPages(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build(), true).flatMap(response -> response.contents().stream()).map(S3Object::key).filter(fileName -> Arrays.stream(fileExtensions).anyMatch(fileName::endsWith)) // 过滤指定类型的文件
+                .collect(Collectors.toList());
     }
 
     /**
@@ -914,10 +1999,65 @@ public class OssTemplate implements InitializingBean {
             folderName = folderName.endsWith("/") ? folderName : folderName + "/";
         }
 
-        // 列出指定目录下的所有对象
-        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build());
+        // 逐页列出指定目录下的所有文件
+        return streamPages(ListObjectsV2Request.builder().bucket(BASE_BUCKET).prefix(folderName).delimiter("/").build(), true).flatMap(response -> response.contents().stream()).map(S3Object::key).collect(Collectors.toList());
+    }
+
+    /**
+     * 是否配置了 BASE_BUCKET，所有 bucket 作为其中的一级目录
+     *
+     * @return 是否为 BASE_BUCKET 模式
+     */
+    boolean isBaseBucketMode() {
+        return StringUtils.hasText(BASE_BUCKET);
+    }
+
+    /**
+     * 解析实际存储的 bucket
+     *
+     * @param bucketName bucket名称
+     * @return BASE_BUCKET 不为空时为 BASE_BUCKET，否则为 bucketName
+     */
+    String targetBucket(String bucketName) {
+        return StringUtils.hasText(BASE_BUCKET) ? BASE_BUCKET : bucketName;
+    }
+
+    /**
+     * 解析实际存储的对象 key
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @return BASE_BUCKET 不为空时为 bucketName/objectName，否则为 objectName
+     */
+    String targetKey(String bucketName, String objectName) {
+        return StringUtils.hasText(BASE_BUCKET) ? bucketName + "/" + objectName : objectName;
+    }
+
+    /**
+     * 预签名缓存的键，有效期不同的请求分别缓存
+     */
+    private record PresignCacheKey(String method, String bucket, String key, Duration expires) {
+    }
+
+    private enum MetadataType {
+        HEAD, TAGS, ACL
+    }
+
+    /**
+     * 元数据缓存的键
+     */
+    private record MetadataCacheKey(MetadataType type, String bucket, String key) {
+    }
+
+    /**
+     * getObject 请求合并的键
+     */
+    private record ObjectFlightKey(String bucket, String key) {
+    }
 
-        // 获取所有文件
-        return new ArrayList<>(response.contents().stream().map(S3Object::key).toList());
+    /**
+     * 合并请求的结果，content 不为 null 时可以共享，否则只有 stream 可用
+     */
+    private record SharedObject(GetObjectResponse response, byte[] content, ResponseInputStream<GetObjectResponse> stream) {
     }
 }
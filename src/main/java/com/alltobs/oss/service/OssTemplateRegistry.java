@@ -0,0 +1,228 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.support.OssClientFactory;
+import com.alltobs.oss.support.UploadSessionStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 类 OssTemplateRegistry
+ * </p>
+ * 按 oss.profiles 管理多个存储服务的 OssTemplate，首次使用时创建。
+ * 所有模板共用同一个 OssClientFactory（连接池、缓冲区池、限流）和同一个后台任务线程池，
+ * 增加存储服务不会增加线程和连接池。可以按名称、租户或 bucket 获取模板，bucket 未配置路由时使用默认模板。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+public class OssTemplateRegistry implements DisposableBean {
+
+    private final OssProperties ossProperties;
+
+    private final OssClientFactory clientFactory;
+
+    private final OssTemplate defaultTemplate;
+
+    private final UploadSessionStore uploadSessionStore;
+
+    private final Map<String, String> bucketRoutes = new HashMap<>();
+
+    private final Map<String, String> tenantRoutes = new HashMap<>();
+
+    private final Map<String, OssTemplate> templates = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService workerExecutor;
+
+    private volatile boolean destroyed;
+
+    /**
+     * @param ossProperties      配置，profiles 之外的配置作为每个模板的默认值
+     * @param clientFactory      共用的客户端工厂
+     * @param defaultTemplate    默认模板，bucket 或租户没有匹配的配置时使用，可以为 null
+     * @param uploadSessionStore 可续传上传的会话存储，为 null 时每个模板使用各自目录下的日志文件；共用时各模板按配置名称区分会话
+     */
+    public OssTemplateRegistry(OssProperties ossProperties, OssClientFactory clientFactory, OssTemplate defaultTemplate, UploadSessionStore uploadSessionStore) {
+        this.ossProperties = ossProperties;
+        this.clientFactory = clientFactory;
+        this.defaultTemplate = defaultTemplate;
+        this.uploadSessionStore = uploadSessionStore;
+        ossProperties.getProfiles().forEach((name, profile) -> {
+            profile.getBuckets().forEach(bucket -> route(bucketRoutes, bucket, name));
+            route(tenantRoutes, name, name);
+            profile.getTenants().forEach(tenant -> route(tenantRoutes, tenant, name));
+        });
+    }
+
+    /**
+     * 配置的名称
+     *
+     * @return 名称
+     */
+    public Set<String> getNames() {
+        return ossProperties.getProfiles().keySet();
+    }
+
+    /**
+     * 按名称获取模板，首次调用时创建
+     *
+     * @param name 配置名称
+     * @return 模板
+     */
+    public OssTemplate get(String name) {
+        OssProperties.Profile profile = ossProperties.getProfiles().get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("未配置 oss.profiles." + name);
+        }
+        if (destroyed) {
+            throw new IllegalStateException("OssTemplateRegistry 已关闭");
+        }
+        return templates.computeIfAbsent(name, key -> create(key, profile));
+    }
+
+    /**
+     * 按租户获取模板
+     *
+     * @param tenant 租户，匹配配置名称或 tenants
+     * @return 模板，没有匹配的配置时返回默认模板
+     */
+    public OssTemplate forTenant(String tenant) {
+        return route(tenantRoutes.get(tenant), "租户 " + tenant);
+    }
+
+    /**
+     * 按 bucket 获取模板
+     *
+     * @param bucketName bucket，匹配 buckets
+     * @return 模板，没有匹配的配置时返回默认模板
+     */
+    public OssTemplate forBucket(String bucketName) {
+        return route(bucketRoutes.get(bucketName), "bucket " + bucketName);
+    }
+
+    /**
+     * 默认模板
+     *
+     * @return 默认模板，可能为 null
+     */
+    public OssTemplate getDefault() {
+        return defaultTemplate;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        destroyed = true;
+        templates.values().forEach(OssTemplate::destroy);
+        templates.clear();
+        if (workerExecutor != null) {
+            workerExecutor.shutdownNow();
+        }
+    }
+
+    private OssTemplate route(String name, String target) {
+        if (name != null) {
+            return get(name);
+        }
+        if (defaultTemplate == null) {
+            throw new IllegalArgumentException(target + " 没有匹配的 oss.profiles，且未配置默认模板");
+        }
+        return defaultTemplate;
+    }
+
+    private OssTemplate create(String name, OssProperties.Profile profile) {
+        OssTemplate template = new OssTemplate(merge(name, profile), clientFactory);
+        template.setWorkerExecutor(workerExecutor());
+        template.setProfile(name);
+        if (uploadSessionStore != null) {
+            template.setUploadSessionStore(uploadSessionStore);
+        }
+        try {
+            template.afterPropertiesSet();
+        } catch (Exception e) {
+            template.destroy();
+            throw new IllegalStateException("创建 OssTemplate 失败: " + name, e);
+        }
+        log.info("已创建 OssTemplate {}", name);
+        return template;
+    }
+
+    private synchronized ExecutorService workerExecutor() {
+        if (workerExecutor == null) {
+            workerExecutor = OssTemplate.newWorkerExecutor(ossProperties.getWorkerThreads());
+        }
+        return workerExecutor;
+    }
+
+    /**
+     * 复制外层配置并覆盖连接项。嵌套配置对象与外层共用，只读副本使用该配置自己的，会话日志目录和本地缓存目录按名称区分，避免不同存储服务的会话互相恢复、缓存互相读取
+     */
+    private OssProperties merge(String name, OssProperties.Profile profile) {
+        OssProperties merged = new OssProperties();
+        BeanUtils.copyProperties(ossProperties, merged);
+        merged.setProfiles(new LinkedHashMap<>());
+        if (profile.getEndpoint() != null) {
+            merged.setEndpoint(profile.getEndpoint());
+            merged.setPreviewUrl(profile.getPreviewUrl());
+        }
+        if (profile.getPreviewUrl() != null) {
+            merged.setPreviewUrl(profile.getPreviewUrl());
+        }
+        if (profile.getCustomDomain() != null) {
+            merged.setCustomDomain(profile.getCustomDomain());
+        }
+        if (profile.getPathStyleAccess() != null) {
+            merged.setPathStyleAccess(profile.getPathStyleAccess());
+        }
+        if (profile.getRegion() != null) {
+            merged.setRegion(profile.getRegion());
+        }
+        if (profile.getAccessKey() != null) {
+            merged.setAccessKey(profile.getAccessKey());
+        }
+        if (profile.getSecretKey() != null) {
+            merged.setSecretKey(profile.getSecretKey());
+        }
+        if (profile.getBucketName() != null) {
+            merged.setBucketName(profile.getBucketName());
+        }
+        if (profile.getExpiringBuckets() != null) {
+            merged.setExpiringBuckets(profile.getExpiringBuckets());
+        }
+        // 外层的副本属于默认存储服务，不能用该配置的密钥访问
+        OssProperties.ReadReplicas readReplicas = new OssProperties.ReadReplicas();
+        if (profile.getReadReplicas() != null) {
+            BeanUtils.copyProperties(profile.getReadReplicas(), readReplicas);
+            readReplicas.setEndpoints(new ArrayList<>(profile.getReadReplicas().getEndpoints()));
+        }
+        merged.setReadReplicas(readReplicas);
+        OssProperties.UploadSession uploadSession = new OssProperties.UploadSession();
+        BeanUtils.copyProperties(ossProperties.getUploadSession(), uploadSession);
+        uploadSession.setDirectory(Paths.get(uploadSession.getDirectory(), name).toString());
+        merged.setUploadSession(uploadSession);
+        // 本地缓存的条目只按 bucket/key 区分，不同存储服务不能共用缓存目录
+        OssProperties.DiskCache diskCache = new OssProperties.DiskCache();
+        BeanUtils.copyProperties(ossProperties.getDiskCache(), diskCache);
+        diskCache.setDirectory(Paths.get(diskCache.getDirectory(), name).toString());
+        merged.setDiskCache(diskCache);
+        return merged;
+    }
+
+    private static void route(Map<String, String> routes, String key, String name) {
+        String previous = routes.putIfAbsent(key, name);
+        if (previous != null && !previous.equals(name)) {
+            throw new IllegalArgumentException(key + " 同时路由到 oss.profiles." + previous + " 和 " + name);
+        }
+    }
+}
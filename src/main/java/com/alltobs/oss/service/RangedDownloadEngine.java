@@ -0,0 +1,395 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.model.DownloadOptions;
+import com.alltobs.oss.model.DownloadResult;
+import com.alltobs.oss.model.TransferProgressListener;
+import com.alltobs.oss.properties.OssProperties;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 类 RangedDownloadEngine
+ * </p>
+ * 多连接分段下载。先 HEAD 获取大小和 ETag，再按段并发发起带 Range 的 GET，
+ * 下载到文件时直接写入 FileChannel 对应位置，或者以有序输入流的方式按顺序返回。
+ * 所有分段请求都带 If-Match，对象在下载过程中被覆盖时会失败而不是拼出混合内容。
+ * 下载到文件时在目标文件旁记录已完成的分段，失败后再次下载可以跳过已完成的分段。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+class RangedDownloadEngine {
+
+    /**
+     * 进度文件后缀
+     */
+    static final String STATE_SUFFIX = ".ossdownload";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final S3Client s3Client;
+
+    private final ExecutorService executor;
+
+    private final OssProperties.Download config;
+
+    RangedDownloadEngine(S3Client s3Client, ExecutorService executor, OssProperties.Download config) {
+        this.s3Client = s3Client;
+        this.executor = executor;
+        this.config = config;
+    }
+
+    /**
+     * 并发下载到本地文件
+     */
+    DownloadResult download(String targetBucket, String targetKey, Path destination, DownloadOptions options) throws IOException {
+        HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder().bucket(targetBucket).key(targetKey).build());
+        long size = head.contentLength();
+        long chunkSize = options.getChunkSize() > 0 ? options.getChunkSize() : config.getChunkSize();
+        int chunkCount = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+        Path stateFile = destination.resolveSibling(destination.getFileName() + STATE_SUFFIX);
+
+        BitSet completed = options.isResume() ? readState(stateFile, head.eTag(), size, chunkSize) : null;
+        boolean resuming = completed != null && Files.exists(destination);
+        if (!resuming) {
+            completed = new BitSet(chunkCount);
+            writeStateHeader(stateFile, head.eTag(), size, chunkSize);
+        }
+        int resumedChunks = completed.cardinality();
+
+        Semaphore permits = new Semaphore(options.getConcurrency() > 0 ? options.getConcurrency() : config.getConcurrency());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong transferred = new AtomicLong(Math.min(size, (long) resumedChunks * chunkSize));
+        TransferProgressListener progressListener = options.getProgressListener();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        StandardOpenOption[] openOptions = resuming ? new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.WRITE} : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING};
+        try (FileChannel channel = FileChannel.open(destination, openOptions); StateLog stateLog = new StateLog(stateFile)) {
+            for (int i = 0; i < chunkCount && size > 0; i++) {
+                if (completed.get(i)) {
+                    continue;
+                }
+                if (failure.get() != null) {
+                    break;
+                }
+                acquire(permits);
+                int index = i;
+                long start = i * chunkSize;
+                long end = Math.min(size, start + chunkSize) - 1;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        if (failure.get() != null) {
+                            return;
+                        }
+                        writeRange(targetBucket, targetKey, head.eTag(), start, end, channel);
+                        stateLog.append(index);
+                        long done = transferred.addAndGet(end - start + 1);
+                        if (progressListener != null) {
+                            progressListener.onProgress(done, size);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            }
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                }
+            }
+            rethrow(failure.get());
+        }
+
+        Files.deleteIfExists(stateFile);
+        return new DownloadResult(targetBucket, targetKey, head.eTag(), size, chunkCount, resumedChunks);
+    }
+
+    /**
+     * 按顺序返回对象内容的输入流，后台并发预取后续分段，内存中最多保留 concurrency 个分段
+     */
+    InputStream openStream(String targetBucket, String targetKey, DownloadOptions options) {
+        HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder().bucket(targetBucket).key(targetKey).build());
+        long chunkSize = options.getChunkSize() > 0 ? options.getChunkSize() : config.getChunkSize();
+        if (chunkSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("分段大小过大: " + chunkSize);
+        }
+        int window = options.getConcurrency() > 0 ? options.getConcurrency() : config.getConcurrency();
+        return new OrderedRangeInputStream(targetBucket, targetKey, head.eTag(), head.contentLength(), chunkSize, window, options.getProgressListener());
+    }
+
+    private void writeRange(String bucket, String key, String eTag, long start, long end, FileChannel channel) {
+        try (ResponseInputStream<GetObjectResponse> stream = getRange(bucket, key, eTag, start, end)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long position = start;
+            int read;
+            while ((read = stream.read(buffer)) > 0) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+            }
+            if (position != end + 1) {
+                throw new IOException("分段长度不一致，期望结束位置 " + (end + 1) + "，实际 " + position);
+            }
+            // 分段写入磁盘后才能记入进度文件，否则机器崩溃后续传会跳过没有落盘的分段
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] readRange(String bucket, String key, String eTag, long start, long end) {
+        try (ResponseInputStream<GetObjectResponse> stream = getRange(bucket, key, eTag, start, end)) {
+            byte[] bytes = stream.readAllBytes();
+            if (bytes.length != end - start + 1) {
+                throw new IOException("分段长度不一致，期望 " + (end - start + 1) + "，实际 " + bytes.length);
+            }
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseInputStream<GetObjectResponse> getRange(String bucket, String key, String eTag, long start, long end) {
+        return s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).range("bytes=" + start + "-" + end).ifMatch(eTag).build());
+    }
+
+    /**
+     * 读取进度文件，ETag、大小或分段大小不一致时返回 null
+     */
+    static BitSet readState(Path stateFile, String eTag, long size, long chunkSize) {
+        if (!Files.exists(stateFile)) {
+            return null;
+        }
+        try {
+            String content = Files.readString(stateFile, StandardCharsets.UTF_8);
+            // 最后一行没有换行符说明写入时中断，忽略，避免把 "12" 读成 "1"
+            int end = content.lastIndexOf('\n');
+            if (end < 0) {
+                return null;
+            }
+            List<String> lines = List.of(content.substring(0, end).split("\n"));
+            if (lines.size() < 3 || !lines.get(0).equals("etag=" + eTag) || !lines.get(1).equals("size=" + size) || !lines.get(2).equals("chunkSize=" + chunkSize)) {
+                return null;
+            }
+            BitSet completed = new BitSet();
+            for (String line : lines.subList(3, lines.size())) {
+                if (!line.isBlank()) {
+                    completed.set(Integer.parseInt(line.trim()));
+                }
+            }
+            return completed;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("读取下载进度文件失败，重新下载：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeStateHeader(Path stateFile, String eTag, long size, long chunkSize) throws IOException {
+        Files.writeString(stateFile, "etag=" + eTag + "\nsize=" + size + "\nchunkSize=" + chunkSize + "\n", StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 一次下载的进度文件，下载期间保持打开，同一个下载的分段完成记录在这里串行追加，不同下载互不影响
+     */
+    private static final class StateLog implements Closeable {
+
+        private final FileChannel channel;
+
+        StateLog(Path stateFile) throws IOException {
+            this.channel = FileChannel.open(stateFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        synchronized void append(int index) {
+            try {
+                ByteBuffer line = ByteBuffer.wrap((index + "\n").getBytes(StandardCharsets.UTF_8));
+                while (line.hasRemaining()) {
+                    channel.write(line);
+                }
+            } catch (IOException e) {
+                // 进度文件只影响续传，不影响本次下载
+                log.warn("写入下载进度文件失败：{}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static void acquire(Semaphore permits) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("分段下载被中断");
+        }
+    }
+
+    private static void rethrow(Throwable throwable) throws IOException {
+        if (throwable == null) {
+            return;
+        }
+        if (throwable instanceof UncheckedIOException uncheckedIOException) {
+            throw uncheckedIOException.getCause();
+        }
+        if (throwable instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (throwable instanceof IOException ioException) {
+            throw ioException;
+        }
+        throw new IOException(throwable);
+    }
+
+    /**
+     * 有序分段输入流
+     */
+    private class OrderedRangeInputStream extends InputStream {
+
+        private final String bucket;
+
+        private final String key;
+
+        private final String eTag;
+
+        private final long size;
+
+        private final long chunkSize;
+
+        private final int window;
+
+        private final TransferProgressListener progressListener;
+
+        private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+        /**
+         * 下一个需要调度的分段起点
+         */
+        private long nextStart;
+
+        private long delivered;
+
+        private byte[] current = new byte[0];
+
+        private int currentOffset;
+
+        private boolean closed;
+
+        OrderedRangeInputStream(String bucket, String key, String eTag, long size, long chunkSize, int window, TransferProgressListener progressListener) {
+            this.bucket = bucket;
+            this.key = key;
+            this.eTag = eTag;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.window = Math.max(1, window);
+            this.progressListener = progressListener;
+            fillWindow();
+        }
+
+        private void fillWindow() {
+            while (pending.size() < window && nextStart < size) {
+                long start = nextStart;
+                long end = Math.min(size, start + chunkSize) - 1;
+                pending.addLast(CompletableFuture.supplyAsync(() -> readRange(bucket, key, eTag, start, end), executor));
+                nextStart = end + 1;
+            }
+        }
+
+        private boolean advance() throws IOException {
+            if (closed) {
+                throw new IOException("流已关闭");
+            }
+            while (currentOffset >= current.length) {
+                CompletableFuture<byte[]> next = pending.pollFirst();
+                if (next == null) {
+                    return false;
+                }
+                try {
+                    current = next.join();
+                } catch (CompletionException e) {
+                    rethrow(e.getCause());
+                }
+                currentOffset = 0;
+                fillWindow();
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!advance()) {
+                return -1;
+            }
+            delivered++;
+            return current[currentOffset++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!advance()) {
+                return -1;
+            }
+            int count = Math.min(len, current.length - currentOffset);
+            System.arraycopy(current, currentOffset, b, off, count);
+            currentOffset += count;
+            delivered += count;
+            if (progressListener != null && currentOffset == current.length) {
+                progressListener.onProgress(delivered, size);
+            }
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current.length - currentOffset;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            pending.forEach(future -> future.cancel(false));
+            pending.clear();
+            current = new byte[0];
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.properties.OssProperties;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 类 ReplicaRouter
+ * </p>
+ * 只读副本路由。每个 endpoint 记录延迟和错误率的 EWMA 以及最近请求的 p95 延迟，读请求按健康状态和延迟排序后依次尝试，
+ * 还没有请求过的副本延迟视为 0，会优先得到一次请求。副本返回 4xx 时视为复制延迟，不计入错误，继续尝试下一个；
+ * 主 endpoint 返回的 4xx 和任一副本对条件请求返回的 304 直接抛出。开启对冲后，首选副本的请求在调用线程上执行，超过其 p95 延迟仍未返回时
+ * 在对冲线程池中向次优副本再发一个请求，先成功的结果返回给调用方，另一个结果由 discard 释放；首选请求失败时等待对冲请求的结果。
+ * 对冲线程池有上限，全部占用时不再对冲。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+public class ReplicaRouter implements AutoCloseable {
+
+    /**
+     * 计算 p95 使用的最近请求数
+     */
+    private static final int WINDOW = 128;
+
+    /**
+     * 样本数少于该值时 p95 不可靠，不发起对冲请求
+     */
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
+    private final List<Replica> replicas;
+
+    private final OssProperties.ReadReplicas config;
+
+    /**
+     * 执行对冲请求，没有队列，线程全部占用时拒绝
+     */
+    private final ThreadPoolExecutor hedgeExecutor;
+
+    /**
+     * 到达对冲延迟时发起对冲请求
+     */
+    private final ScheduledThreadPoolExecutor hedgeTimer;
+
+    private final LongAdder hedgedCount = new LongAdder();
+
+    private final LongAdder hedgeSkippedCount = new LongAdder();
+
+    /**
+     * @param endpoints 第一个为主 endpoint
+     * @param clients   与 endpoints 一一对应的客户端
+     * @param config    副本配置
+     */
+    ReplicaRouter(List<String> endpoints, List<S3Client> clients, OssProperties.ReadReplicas config) {
+        this.config = config;
+        List<Replica> list = new ArrayList<>(endpoints.size());
+        for (int i = 0; i < endpoints.size(); i++) {
+            list.add(new Replica(endpoints.get(i), clients.get(i), i == 0));
+        }
+        this.replicas = List.copyOf(list);
+        if (config.isHedge()) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            // 对冲请求不能排在上传等后台任务之后，单独使用按需创建、有上限的线程
+            this.hedgeExecutor = new ThreadPoolExecutor(0, Math.max(1, config.getHedgeMaxConcurrency()), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "oss-hedge-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.hedgeTimer = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "oss-hedge-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 大多数请求在对冲延迟前返回，取消的定时任务立即移除
+            this.hedgeTimer.setRemoveOnCancelPolicy(true);
+        } else {
+            this.hedgeExecutor = null;
+            this.hedgeTimer = null;
+        }
+    }
+
+    /**
+     * 在选出的副本上执行读请求
+     *
+     * @param call    读请求
+     * @param discard 对冲时释放未被使用的结果，如关闭流
+     * @param <T>     结果类型
+     * @return 结果
+     */
+    <T> T read(Function<S3Client, T> call, Consumer<T> discard) {
+        List<Replica> order = rank();
+        Attempts attempts = new Attempts();
+        int next = 0;
+        if (hedgeExecutor != null && order.size() > 1 && order.get(0).p95Nanos() > 0) {
+            T value = hedged(order.get(0), order.get(1), call, discard, attempts);
+            if (value != null) {
+                return value;
+            }
+            // 首选副本在对冲延迟之前就失败时次优副本还没有请求过，从它继续尝试
+            next = attempts.hasFailed(order.get(1)) ? 2 : 1;
+        }
+        for (int i = next; i < order.size() && !attempts.isDefinitive(); i++) {
+            try {
+                return attempt(order.get(i), call);
+            } catch (RuntimeException e) {
+                attempts.failed(order.get(i), e);
+            }
+        }
+        throw attempts.failure();
+    }
+
+    /**
+     * 各个 endpoint 的统计信息
+     *
+     * @return 统计信息，第一个为主 endpoint
+     */
+    public List<ReplicaStats> stats() {
+        return replicas.stream().map(Replica::stats).toList();
+    }
+
+    /**
+     * 发起过的对冲请求数
+     *
+     * @return 对冲请求数
+     */
+    public long hedgedCount() {
+        return hedgedCount.sum();
+    }
+
+    /**
+     * 因对冲线程池占满而没有发起的对冲请求数
+     *
+     * @return 跳过的对冲请求数
+     */
+    public long hedgeSkippedCount() {
+        return hedgeSkippedCount.sum();
+    }
+
+    @Override
+    public void close() {
+        if (hedgeExecutor != null) {
+            hedgeTimer.shutdownNow();
+            hedgeExecutor.shutdownNow();
+        }
+        // 主 endpoint 的客户端由 OssTemplate 关闭
+        replicas.stream().filter(replica -> !replica.primary).forEach(replica -> replica.client.close());
+    }
+
+    /**
+     * 健康的副本按延迟排序在前；到了探测时间的不健康副本排在最前面，得到一次请求；其余不健康副本排在最后
+     */
+    private List<Replica> rank() {
+        long now = System.nanoTime();
+        List<Replica> order = new ArrayList<>(replicas);
+        order.sort(Comparator.comparingInt((Replica replica) -> replica.rankGroup(now)).thenComparingDouble(Replica::latencyEwma).thenComparing(replica -> !replica.primary));
+        order.get(0).claimProbe(now);
+        return order;
+    }
+
+    private <T> T attempt(Replica replica, Function<S3Client, T> call) {
+        long start = System.nanoTime();
+        try {
+            T value = call.apply(replica.client);
+            replica.record(System.nanoTime() - start, false);
+            return value;
+        } catch (SdkServiceException e) {
+            // 4xx 说明副本可用，只是数据不同（复制延迟）或请求本身有误
+            replica.record(System.nanoTime() - start, e.statusCode() >= 500 || e.statusCode() == 0);
+            throw e;
+        } catch (RuntimeException e) {
+            replica.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    /**
+     * 首选副本在调用线程上执行，到达对冲延迟时在后台请求次优副本，都失败时返回 null。
+     * 首选副本在对冲延迟之前失败或对冲线程池已满时不会请求次优副本
+     */
+    private <T> T hedged(Replica first, Replica second, Function<S3Client, T> call, Consumer<T> discard, Attempts attempts) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        // 进行中的请求数，首选请求结束后为 0 说明对冲请求没有发出或已经失败
+        AtomicInteger pending = new AtomicInteger(1);
+        long delay = Math.max(config.getHedgeMinDelay().toNanos(), first.p95Nanos());
+        ScheduledFuture<?> timer = hedgeTimer.schedule(() -> hedge(second, call, discard, winner, pending, attempts), delay, TimeUnit.NANOSECONDS);
+        T value;
+        try {
+            value = attempt(first, call);
+        } catch (RuntimeException e) {
+            timer.cancel(false);
+            attempts.failed(first, e);
+            if (pending.decrementAndGet() == 0) {
+                return null;
+            }
+            return awaitHedge(winner);
+        }
+        timer.cancel(false);
+        if (winner.complete(value)) {
+            return value;
+        }
+        // 对冲请求先成功
+        if (discard != null) {
+            discard.accept(value);
+        }
+        return winner.join();
+    }
+
+    private <T> void hedge(Replica replica, Function<S3Client, T> call, Consumer<T> discard, CompletableFuture<T> winner, AtomicInteger pending, Attempts attempts) {
+        if (winner.isDone() || pending.incrementAndGet() == 1) {
+            // 首选请求已经结束，由调用方处理
+            return;
+        }
+        try {
+            hedgeExecutor.execute(() -> {
+                try {
+                    T value = attempt(replica, call);
+                    if (!winner.complete(value) && discard != null) {
+                        discard.accept(value);
+                    }
+                } catch (RuntimeException e) {
+                    attempts.failed(replica, e);
+                    if (pending.decrementAndGet() == 0) {
+                        winner.completeExceptionally(e);
+                    }
+                }
+            });
+            hedgedCount.increment();
+        } catch (RejectedExecutionException e) {
+            hedgeSkippedCount.increment();
+            if (pending.decrementAndGet() == 0) {
+                winner.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 首选请求失败后等待已经发出的对冲请求，对冲请求也失败时返回 null
+     */
+    private <T> T awaitHedge(CompletableFuture<T> winner) {
+        try {
+            return winner.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // 之后完成的结果不再有人使用
+            winner.cancel(false);
+            throw AbortedException.create("等待读请求时被中断", e);
+        }
+    }
+
+    /**
+     * 一次读请求中各副本的失败，优先抛出确定的结果，其次是主 endpoint 的异常。
+     * 主 endpoint 返回 4xx 或任一副本返回 304（条件请求的对象未变化）时不再尝试其他副本
+     */
+    private static final class Attempts {
+
+        private RuntimeException definitiveFailure;
+
+        private RuntimeException primaryFailure;
+
+        private RuntimeException lastFailure;
+
+        private boolean definitive;
+
+        private final List<Replica> failedReplicas = new ArrayList<>(2);
+
+        synchronized void failed(Replica replica, RuntimeException e) {
+            failedReplicas.add(replica);
+            int status = e instanceof SdkServiceException serviceException ? serviceException.statusCode() : 0;
+            if (replica.primary) {
+                primaryFailure = e;
+            }
+            if (status == 304 || replica.primary && status >= 400 && status < 500) {
+                definitive = true;
+                if (definitiveFailure == null) {
+                    definitiveFailure = e;
+                }
+            }
+            lastFailure = e;
+        }
+
+        synchronized boolean hasFailed(Replica replica) {
+            return failedReplicas.contains(replica);
+        }
+
+        synchronized boolean isDefinitive() {
+            return definitive;
+        }
+
+        synchronized RuntimeException failure() {
+            if (definitiveFailure != null) {
+                return definitiveFailure;
+            }
+            return primaryFailure != null ? primaryFailure : lastFailure;
+        }
+    }
+
+    private final class Replica {
+
+        private final String endpoint;
+
+        private final S3Client client;
+
+        private final boolean primary;
+
+        private final long[] window = new long[WINDOW];
+
+        private int windowSize;
+
+        private int windowIndex;
+
+        private long p95Nanos;
+
+        private double latencyEwma;
+
+        private double errorRate;
+
+        private long lastProbeNanos;
+
+        private final LongAdder requestCount = new LongAdder();
+
+        private final LongAdder errorCount = new LongAdder();
+
+        Replica(String endpoint, S3Client client, boolean primary) {
+            this.endpoint = endpoint;
+            this.client = client;
+            this.primary = primary;
+            this.lastProbeNanos = System.nanoTime();
+        }
+
+        synchronized void record(long latencyNanos, boolean error) {
+            requestCount.increment();
+            if (error) {
+                errorCount.increment();
+            }
+            double alpha = config.getEwmaAlpha();
+            latencyEwma = windowSize == 0 ? latencyNanos : latencyEwma + alpha * (latencyNanos - latencyEwma);
+            errorRate = errorRate + alpha * ((error ? 1 : 0) - errorRate);
+            window[windowIndex] = latencyNanos;
+            windowIndex = (windowIndex + 1) % WINDOW;
+            windowSize = Math.min(WINDOW, windowSize + 1);
+            // 每 16 个样本重新计算一次 p95
+            if (windowSize >= MIN_HEDGE_SAMPLES && windowIndex % 16 == 0) {
+                long[] samples = Arrays.copyOf(window, windowSize);
+                Arrays.sort(samples);
+                p95Nanos = samples[(int) Math.ceil(samples.length * 0.95) - 1];
+            }
+        }
+
+        synchronized double latencyEwma() {
+            return latencyEwma;
+        }
+
+        synchronized long p95Nanos() {
+            return p95Nanos;
+        }
+
+        /**
+         * 0 为到了探测时间的不健康副本，1 为健康副本，2 为其余不健康副本
+         */
+        synchronized int rankGroup(long now) {
+            if (errorRate < config.getUnhealthyErrorRate()) {
+                return 1;
+            }
+            return now - lastProbeNanos >= config.getProbeInterval().toNanos() ? 0 : 2;
+        }
+
+        synchronized void claimProbe(long now) {
+            lastProbeNanos = now;
+        }
+
+        synchronized ReplicaStats stats() {
+            return new ReplicaStats(endpoint, primary, errorRate < config.getUnhealthyErrorRate(), latencyEwma / 1_000_000, p95Nanos / 1_000_000.0, errorRate, requestCount.sum(), errorCount.sum());
+        }
+    }
+
+    /**
+     * 副本统计信息
+     *
+     * @param endpoint      endpoint
+     * @param primary       是否为主 endpoint
+     * @param healthy       是否健康
+     * @param latencyMillis 延迟 EWMA，单位毫秒
+     * @param p95Millis     最近请求的 p95 延迟，单位毫秒，样本不足时为 0
+     * @param errorRate     错误率 EWMA
+     * @param requestCount  请求数
+     * @param errorCount    失败数
+     */
+    public record ReplicaStats(String endpoint, boolean primary, boolean healthy, double latencyMillis, double p95Millis, double errorRate, long requestCount, long errorCount) {
+    }
+}
@@ -0,0 +1,417 @@
+package com.alltobs.oss.service;
+
+import com.alltobs.oss.model.LargeUploadOptions;
+import com.alltobs.oss.model.TransferProgressListener;
+import com.alltobs.oss.model.UploadResult;
+import com.alltobs.oss.model.UploadSession;
+import com.alltobs.oss.properties.OssProperties;
+import com.alltobs.oss.support.Checksums;
+import com.alltobs.oss.support.UploadSessionStore;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 类 UploadSessionManager
+ * </p>
+ * 可续传的分片上传。上传ID、分片大小和已完成分片的 ETag 保存在 {@link UploadSessionStore} 中，
+ * 续传时直接跳过已完成的分片，不需要调用 listParts，也不会创建临时标记文件。
+ * 同时负责清理长时间未完成的分片上传（ListMultipartUploads + AbortMultipartUpload），避免占用存储空间。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+public class UploadSessionManager {
+
+    private final OssTemplate ossTemplate;
+
+    private final S3Client s3Client;
+
+    private final ExecutorService executor;
+
+    private final MultipartUploadEngine multipartUploadEngine;
+
+    private final UploadSessionStore store;
+
+    private final OssProperties ossProperties;
+
+    private final ChecksumAlgorithm checksumAlgorithm;
+
+    private final ScheduledExecutorService cleanupScheduler;
+
+    /**
+     * 所属的 oss.profiles 名称，默认模板为 null，只处理该名称下的会话
+     */
+    private final String profile;
+
+    UploadSessionManager(OssTemplate ossTemplate, S3Client s3Client, ExecutorService executor, MultipartUploadEngine multipartUploadEngine, UploadSessionStore store, OssProperties ossProperties, String profile) {
+        this.ossTemplate = ossTemplate;
+        this.s3Client = s3Client;
+        this.executor = executor;
+        this.multipartUploadEngine = multipartUploadEngine;
+        this.store = store;
+        this.ossProperties = ossProperties;
+        this.profile = profile;
+        this.checksumAlgorithm = Checksums.algorithm(ossProperties.getChecksum());
+
+        Duration interval = ossProperties.getUploadSession().getCleanupInterval();
+        if (interval != null && !interval.isZero() && !interval.isNegative()) {
+            cleanupScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "oss-upload-cleanup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            cleanupScheduler.scheduleWithFixedDelay(this::scheduledCleanup, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            cleanupScheduler = null;
+        }
+    }
+
+    /**
+     * 开始新的分片上传
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  对象名称
+     * @param contentType 文件类型
+     * @param partSize    分片大小，单位字节
+     * @param totalSize   数据总大小，未知时为 -1
+     * @param fingerprint 数据源标识，用于续传时判断数据是否变化，可以为 null
+     * @return 上传会话
+     */
+    public UploadSession start(String bucketName, String objectName, String contentType, long partSize, long totalSize, String fingerprint) {
+        ossTemplate.ensureBucketOrFolderExist(bucketName);
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder().bucket(ossTemplate.targetBucket(bucketName)).key(ossTemplate.targetKey(bucketName, objectName)).contentType(contentType).checksumAlgorithm(checksumAlgorithm).build()).uploadId();
+        UploadSession session = new UploadSession(uploadId, bucketName, objectName, contentType, partSize, totalSize, fingerprint, Instant.now(), profile);
+        store.save(session);
+        return session;
+    }
+
+    /**
+     * 查询上传会话
+     *
+     * @param uploadId 上传ID
+     * @return 会话，不存在时为 null
+     */
+    public UploadSession get(String uploadId) {
+        UploadSession session = store.get(uploadId);
+        return session != null && owned(session) ? session : null;
+    }
+
+    /**
+     * 查找同一对象、同一数据源最近的未完成会话
+     *
+     * @param bucketName  bucket名称
+     * @param objectName  对象名称
+     * @param fingerprint 数据源标识
+     * @return 会话
+     */
+    public Optional<UploadSession> find(String bucketName, String objectName, String fingerprint) {
+        return sessions().filter(s -> s.getBucketName().equals(bucketName) && s.getObjectName().equals(objectName) && Objects.equals(s.getFingerprint(), fingerprint)).max(Comparator.comparing(UploadSession::getCreatedAt));
+    }
+
+    /**
+     * 恢复本地没有记录的上传，例如由其他服务发起的上传。只调用一次 listParts，之后的分片记录在会话中
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param uploadId   上传ID
+     * @param partSize   分片大小
+     * @param totalSize  数据总大小，未知时为 -1
+     * @return 上传会话
+     */
+    public UploadSession recover(String bucketName, String objectName, String uploadId, long partSize, long totalSize) {
+        UploadSession session = get(uploadId);
+        if (session != null) {
+            return session;
+        }
+        session = new UploadSession(uploadId, bucketName, objectName, null, partSize, totalSize, null, Instant.now(), profile);
+        store.save(session);
+        for (CompletedPart part : ossTemplate.listParts(bucketName, objectName, uploadId)) {
+            store.partCompleted(uploadId, part.partNumber(), part.eTag());
+            session.partCompleted(part.partNumber(), part.eTag());
+        }
+        return session;
+    }
+
+    /**
+     * 上传分片并记录到会话
+     *
+     * @param session    上传会话
+     * @param partNumber 分片编号
+     * @param buffer     分片内容
+     * @return 已完成的分片
+     */
+    public CompletedPart uploadPart(UploadSession session, int partNumber, byte[] buffer) {
+        return record(session, ossTemplate.uploadPart(session.getBucketName(), session.getObjectName(), session.getUploadId(), partNumber, buffer));
+    }
+
+    /**
+     * 上传文件通道中的一段区域作为分片并记录到会话，通道由调用方负责关闭
+     *
+     * @param session    上传会话
+     * @param partNumber 分片编号
+     * @param channel    文件通道
+     * @param position   分片在文件中的起始位置
+     * @param length     分片长度
+     * @return 已完成的分片
+     */
+    public CompletedPart uploadPart(UploadSession session, int partNumber, FileChannel channel, long position, long length) {
+        return record(session, ossTemplate.uploadPart(session.getBucketName(), session.getObjectName(), session.getUploadId(), partNumber, channel, position, length));
+    }
+
+    /**
+     * 使用会话中记录的分片完成上传，并删除会话。会话只记录分片的 ETag，开启校验和时从存储服务读取各分片的校验和
+     *
+     * @param session 上传会话
+     * @return 完成响应
+     */
+    public CompleteMultipartUploadResponse complete(UploadSession session) {
+        List<CompletedPart> parts = checksumAlgorithm == null ? session.getCompletedParts() : ossTemplate.listParts(session.getBucketName(), session.getObjectName(), session.getUploadId());
+        CompletedMultipartUpload completedMultipartUpload = CompletedMultipartUpload.builder().parts(parts).build();
+        CompleteMultipartUploadResponse response = s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(ossTemplate.targetBucket(session.getBucketName())).key(ossTemplate.targetKey(session.getBucketName(), session.getObjectName())).uploadId(session.getUploadId()).multipartUpload(completedMultipartUpload).build());
+        store.remove(session.getUploadId());
+        return response;
+    }
+
+    /**
+     * 终止上传并删除会话
+     *
+     * @param session 上传会话
+     */
+    public void abort(UploadSession session) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder().bucket(ossTemplate.targetBucket(session.getBucketName())).key(ossTemplate.targetKey(session.getBucketName(), session.getObjectName())).uploadId(session.getUploadId()).build());
+        } catch (NoSuchUploadException e) {
+            log.debug("分片上传已不存在 uploadId={}", session.getUploadId());
+        }
+        store.remove(session.getUploadId());
+    }
+
+    /**
+     * 可续传的文件上传。文件大小和修改时间不变时，继续上次未完成的上传，只上传缺少的分片；
+     * 上传失败时保留会话，再次调用即可续传。小于一个分片时直接上传。
+     *
+     * @param bucketName bucket名称
+     * @param objectName 对象名称
+     * @param file       本地文件
+     * @param options    上传参数
+     * @return 上传结果
+     * @throws IOException IO异常
+     */
+    public UploadResult uploadFile(String bucketName, String objectName, Path file, LargeUploadOptions options) throws IOException {
+        LargeUploadOptions uploadOptions = options == null ? LargeUploadOptions.defaults() : options;
+        long size = Files.size(file);
+        long partSize = multipartUploadEngine.resolvePartSize(size, uploadOptions);
+        if (size <= partSize) {
+            return multipartUploadEngine.upload(bucketName, objectName, file, uploadOptions);
+        }
+
+        String fingerprint = size + ":" + Files.getLastModifiedTime(file).toMillis() + ":" + partSize;
+        UploadSession session = find(bucketName, objectName, fingerprint).orElse(null);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (session != null) {
+                try {
+                    return uploadMissingParts(session, channel, uploadOptions);
+                } catch (NoSuchUploadException e) {
+                    // 上传已被终止或清理，重新开始
+                    log.info("续传的分片上传已不存在，重新上传 uploadId={}", session.getUploadId());
+                    store.remove(session.getUploadId());
+                }
+            }
+            session = start(bucketName, objectName, uploadOptions.getContentType(), partSize, size, fingerprint);
+            return uploadMissingParts(session, channel, uploadOptions);
+        }
+    }
+
+    private UploadResult uploadMissingParts(UploadSession session, FileChannel channel, LargeUploadOptions options) throws IOException {
+        long size = session.getTotalSize();
+        long partSize = session.getPartSize();
+        int partCount = session.getPartCount();
+        TransferProgressListener progressListener = options.getProgressListener();
+        Semaphore permits = new Semaphore(options.getConcurrency() > 0 ? options.getConcurrency() : ossProperties.getMultipart().getConcurrency());
+        AtomicLong transferred = new AtomicLong();
+        List<CompletableFuture<CompletedPart>> futures = new ArrayList<>();
+
+        for (int i = 0; i < partCount; i++) {
+            int partNumber = i + 1;
+            long position = i * partSize;
+            long length = Math.min(partSize, size - position);
+            if (session.isPartCompleted(partNumber)) {
+                transferred.addAndGet(length);
+                continue;
+            }
+            if (futures.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                break;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                awaitQuietly(futures);
+                throw new InterruptedIOException("分片上传被中断");
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    CompletedPart part = uploadPart(session, partNumber, channel, position, length);
+                    long done = transferred.addAndGet(length);
+                    if (progressListener != null) {
+                        progressListener.onProgress(done, size);
+                    }
+                    return part;
+                } finally {
+                    permits.release();
+                }
+            }, executor));
+        }
+
+        // 已完成的分片都已记录，失败时保留会话以便续传
+        for (CompletableFuture<CompletedPart> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                awaitQuietly(futures);
+                if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                    throw uncheckedIOException.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        CompleteMultipartUploadResponse response = complete(session);
+        return new UploadResult(response.bucket(), response.key(), response.eTag(), response.versionId(), size, partCount);
+    }
+
+    /**
+     * 终止指定 bucket 中初始化时间早于 olderThan 的分片上传，并删除对应的本地会话
+     *
+     * @param bucketName bucket名称，BASE_BUCKET 模式下为目录
+     * @param olderThan  上传初始化后经过的时间
+     * @return 终止的上传数
+     */
+    public int cleanupAbandonedUploads(String bucketName, Duration olderThan) {
+        Instant cutoff = Instant.now().minus(olderThan);
+        int aborted = abortUploads(ossTemplate.targetBucket(bucketName), ossTemplate.isBaseBucketMode() ? ossTemplate.targetKey(bucketName, "") : null, cutoff);
+        sessions().filter(s -> s.getBucketName().equals(bucketName) && s.getCreatedAt().isBefore(cutoff)).forEach(s -> store.remove(s.getUploadId()));
+        return aborted;
+    }
+
+    /**
+     * 终止所有 bucket 中初始化时间早于 olderThan 的分片上传，BASE_BUCKET 模式下只检查 BASE_BUCKET
+     *
+     * @param olderThan 上传初始化后经过的时间
+     * @return 终止的上传数
+     */
+    public int cleanupAbandonedUploads(Duration olderThan) {
+        Instant cutoff = Instant.now().minus(olderThan);
+        List<String> buckets = ossTemplate.isBaseBucketMode() ? List.of(ossProperties.getBucketName()) : ossTemplate.getAllBuckets();
+        int aborted = 0;
+        for (String bucket : buckets) {
+            aborted += abortUploads(bucket, null, cutoff);
+        }
+        sessions().filter(s -> s.getCreatedAt().isBefore(cutoff)).forEach(s -> store.remove(s.getUploadId()));
+        return aborted;
+    }
+
+    /**
+     * 本模板的会话，会话存储可能被多个模板共用
+     */
+    private Stream<UploadSession> sessions() {
+        return store.list().stream().filter(this::owned);
+    }
+
+    private boolean owned(UploadSession session) {
+        return Objects.equals(session.getProfile(), profile);
+    }
+
+    private int abortUploads(String targetBucket, String prefix, Instant cutoff) {
+        int aborted = 0;
+        for (MultipartUpload upload : s3Client.listMultipartUploadsPaginator(ListMultipartUploadsRequest.builder().bucket(targetBucket).prefix(prefix).build()).uploads()) {
+            if (upload.initiated() == null || !upload.initiated().isBefore(cutoff)) {
+                continue;
+            }
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder().bucket(targetBucket).key(upload.key()).uploadId(upload.uploadId()).build());
+                aborted++;
+                if (ossProperties.getTempMarker() == 1) {
+                    s3Client.deleteObject(DeleteObjectRequest.builder().bucket(targetBucket).key(upload.key() + ossProperties.getMarkerName()).build());
+                }
+            } catch (S3Exception e) {
+                log.warn("终止分片上传失败 key={} uploadId={}：{}", upload.key(), upload.uploadId(), e.getMessage());
+            }
+        }
+        if (aborted > 0) {
+            log.info("已终止 {} 个未完成的分片上传 bucket={}", aborted, targetBucket);
+        }
+        return aborted;
+    }
+
+    private void scheduledCleanup() {
+        try {
+            cleanupAbandonedUploads(ossProperties.getUploadSession().getAbandonAfter());
+        } catch (RuntimeException e) {
+            log.warn("清理未完成的分片上传失败：{}", e.getMessage());
+        }
+    }
+
+    private CompletedPart record(UploadSession session, CompletedPart part) {
+        session.partCompleted(part.partNumber(), part.eTag());
+        store.partCompleted(session.getUploadId(), part.partNumber(), part.eTag());
+        return part;
+    }
+
+    private static void awaitQuietly(List<CompletableFuture<CompletedPart>> futures) {
+        for (CompletableFuture<CompletedPart> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException ignored) {
+                // 失败原因已由调用方处理
+            }
+        }
+    }
+
+    void close() {
+        if (cleanupScheduler != null) {
+            cleanupScheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.alltobs.oss.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类 AdaptiveConcurrencyLimiter
+ * </p>
+ * AIMD 自适应并发限制。请求成功且并发已用到上限一半以上时，上限每次增加 1/上限（约每轮请求加 1）；
+ * 被限流时上限乘以 backoffRatio。同一轮（上次降低之后获取的许可）只降低一次，
+ * 避免降低前已发出的大量请求同时返回 503 时把上限直接降到最小值。
+ * 异步获取许可时不阻塞线程，在队列中等待归还的许可。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private double limit;
+
+    private int inFlight;
+
+    private long generation;
+
+    private final Queue<CompletableFuture<Long>> waiters = new ArrayDeque<>();
+
+    /**
+     * @param initialLimit 初始并发上限
+     * @param minLimit     最小并发上限
+     * @param maxLimit     最大并发上限
+     * @param backoffRatio 被限流时上限乘以的比例
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("并发上限范围无效: " + minLimit + " - " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio 必须在 0 和 1 之间: " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+    }
+
+    /**
+     * 获取许可，并发达到上限时等待
+     *
+     * @param timeoutNanos 最长等待时间，单位纳秒
+     * @return 许可所属的轮次，传给 {@link #throttled(long)} 和 {@link #release(long, boolean)}；超时返回 -1
+     * @throws InterruptedException 等待时被中断
+     */
+    public synchronized long tryAcquire(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (inFlight >= (int) limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return -1;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        inFlight++;
+        return generation;
+    }
+
+    /**
+     * 异步获取许可，并发达到上限时排队，有许可归还时按顺序完成，不阻塞线程。
+     * 返回的 future 可能在归还许可的线程上完成
+     *
+     * @param timeoutNanos 最长等待时间，单位纳秒
+     * @param scheduler    执行超时检查的线程池
+     * @return 完成时为许可所属的轮次，超时为 -1
+     */
+    public CompletableFuture<Long> acquireAsync(long timeoutNanos, ScheduledExecutorService scheduler) {
+        CompletableFuture<Long> waiter = new CompletableFuture<>();
+        synchronized (this) {
+            if (inFlight < (int) limit && waiters.isEmpty()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(generation);
+            }
+            if (timeoutNanos <= 0) {
+                return CompletableFuture.completedFuture(-1L);
+            }
+            waiters.add(waiter);
+        }
+        scheduler.schedule(() -> {
+            boolean expired;
+            synchronized (this) {
+                expired = waiters.remove(waiter);
+            }
+            // 已出队的等待者由 release 完成，不会同时超时
+            if (expired) {
+                waiter.complete(-1L);
+            }
+        }, timeoutNanos, TimeUnit.NANOSECONDS);
+        return waiter;
+    }
+
+    /**
+     * 请求被存储服务限流，降低并发上限
+     *
+     * @param acquiredGeneration 获取许可时的轮次
+     */
+    public synchronized void throttled(long acquiredGeneration) {
+        if (acquiredGeneration == generation) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            generation++;
+        }
+    }
+
+    /**
+     * 归还许可
+     *
+     * @param acquiredGeneration 获取许可时的轮次
+     * @param success            请求是否成功且未被限流，成功时可能增加并发上限
+     */
+    public void release(long acquiredGeneration, boolean success) {
+        List<CompletableFuture<Long>> granted = new ArrayList<>();
+        long grantedGeneration;
+        synchronized (this) {
+            if (success && acquiredGeneration == generation && inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                granted.add(waiters.poll());
+                inFlight++;
+            }
+            grantedGeneration = generation;
+            notifyAll();
+        }
+        // 在锁外完成，后续操作不会持有锁
+        granted.forEach(waiter -> waiter.complete(grantedGeneration));
+    }
+
+    /**
+     * 当前轮次，每次降低并发上限后加 1
+     *
+     * @return 轮次
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 当前并发上限
+     *
+     * @return 并发上限
+     */
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * 正在执行的请求数
+     *
+     * @return 请求数
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,76 @@
+package com.alltobs.oss.support;
+
+import software.amazon.awssdk.http.ContentStreamProvider;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 类 ByteBufferContentStreamProvider
+ * </p>
+ * 以缓冲区中 position 到 limit 之间的数据作为请求体，直接从缓冲区（包括堆外缓冲区）读入 SDK 提供的数组，
+ * 不会先复制成完整的堆内数组。不修改原缓冲区的位置，SDK 重试时会重新调用 newStream，从头读取。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class ByteBufferContentStreamProvider implements ContentStreamProvider {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferContentStreamProvider(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * 读取缓冲区中剩余的数据
+     *
+     * @param buffer 缓冲区，请求完成前不能修改其中的数据
+     * @return 请求体提供者
+     */
+    public static ByteBufferContentStreamProvider of(ByteBuffer buffer) {
+        return new ByteBufferContentStreamProvider(buffer);
+    }
+
+    @Override
+    public InputStream newStream() {
+        return new BufferInputStream(buffer.duplicate());
+    }
+
+    private static class BufferInputStream extends InputStream {
+
+        private final ByteBuffer source;
+
+        BufferInputStream(ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() {
+            return source.hasRemaining() ? source.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(len, source.remaining());
+            source.get(b, off, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, source.remaining()));
+            source.position(source.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return source.remaining();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.alltobs.oss.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 类 ByteBufferPool
+ * </p>
+ * 分片缓冲区池。按 2 的幂分级复用 ByteBuffer，默认使用堆外内存，大量并发分片上传时不会产生大对象分配，堆内存保持平稳。
+ * 空闲缓冲区总大小超过 maxPooledBytes 时不再回收，交给 GC 释放。
+ * 使用堆外内存时，租用中的缓冲区总大小超过 maxLeasedBytes 后新租用的缓冲区改用堆内存，不放回池中，
+ * 大量并发上传时不会耗尽堆外内存（OutOfMemoryError: Direct buffer memory）。
+ * 开启泄漏检测后，未归还就被回收的租约会记录警告并把缓冲区放回池中。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+public class ByteBufferPool {
+
+    /**
+     * 最小分级 64KB
+     */
+    private static final int MIN_CLASS_SIZE = 64 * 1024;
+
+    private static final int MAX_CLASS_SIZE = 1 << 30;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final boolean direct;
+
+    private final long maxPooledBytes;
+
+    private final long maxLeasedBytes;
+
+    private final boolean leakDetection;
+
+    private final Map<Integer, Queue<ByteBuffer>> free = new ConcurrentHashMap<>();
+
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong leasedBytes = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+
+    /**
+     * 创建缓冲区池，租用中的缓冲区总大小不设上限
+     *
+     * @param direct         是否使用堆外内存
+     * @param maxPooledBytes 空闲缓冲区总大小上限
+     * @param leakDetection  是否检测未归还的缓冲区
+     */
+    public ByteBufferPool(boolean direct, long maxPooledBytes, boolean leakDetection) {
+        this(direct, maxPooledBytes, Long.MAX_VALUE, leakDetection);
+    }
+
+    /**
+     * 创建缓冲区池
+     *
+     * @param direct         是否使用堆外内存
+     * @param maxPooledBytes 空闲缓冲区总大小上限
+     * @param maxLeasedBytes 租用中的堆外缓冲区总大小上限，超过后改用堆内存
+     * @param leakDetection  是否检测未归还的缓冲区
+     */
+    public ByteBufferPool(boolean direct, long maxPooledBytes, long maxLeasedBytes, boolean leakDetection) {
+        this.direct = direct;
+        this.maxPooledBytes = maxPooledBytes;
+        this.maxLeasedBytes = maxLeasedBytes;
+        this.leakDetection = leakDetection;
+    }
+
+    /**
+     * 租用缓冲区，position 为 0，limit 为 size，用完后必须调用 {@link Lease#close()} 归还
+     *
+     * @param size 需要的大小
+     * @return 缓冲区租约
+     */
+    public Lease acquire(int size) {
+        if (size < 0 || size > MAX_CLASS_SIZE) {
+            throw new IllegalArgumentException("缓冲区大小超出范围: " + size);
+        }
+        int classSize = Math.max(MIN_CLASS_SIZE, size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1);
+        ByteBuffer buffer = free.computeIfAbsent(classSize, k -> new ConcurrentLinkedQueue<>()).poll();
+        if (buffer != null) {
+            pooledBytes.addAndGet(-classSize);
+            leasedBytes.addAndGet(classSize);
+            hitCount.increment();
+        } else if (leasedBytes.addAndGet(classSize) <= maxLeasedBytes || !direct) {
+            buffer = direct ? ByteBuffer.allocateDirect(classSize) : ByteBuffer.allocate(classSize);
+            missCount.increment();
+        } else {
+            // 堆外内存已达上限，临时使用堆内缓冲区，归还时不放回池中，也不计入租用大小
+            leasedBytes.addAndGet(-classSize);
+            buffer = ByteBuffer.allocate(classSize);
+            fallbackCount.increment();
+        }
+        buffer.clear().limit(size);
+        return new Lease(new LeaseState(this, buffer, leakDetection && log.isDebugEnabled() ? new Throwable("缓冲区租用位置") : null));
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return 统计信息
+     */
+    public Stats stats() {
+        return new Stats(pooledBytes.get(), leasedBytes.get(), hitCount.sum(), missCount.sum(), leakCount.sum(), fallbackCount.sum());
+    }
+
+    /**
+     * 释放所有空闲缓冲区
+     */
+    public void clear() {
+        free.forEach((classSize, queue) -> {
+            while (queue.poll() != null) {
+                pooledBytes.addAndGet(-classSize);
+            }
+        });
+    }
+
+    private void recycle(ByteBuffer buffer) {
+        if (buffer.isDirect() != direct) {
+            return;
+        }
+        int classSize = buffer.capacity();
+        leasedBytes.addAndGet(-classSize);
+        if (pooledBytes.addAndGet(classSize) > maxPooledBytes) {
+            pooledBytes.addAndGet(-classSize);
+            return;
+        }
+        buffer.clear();
+        free.get(classSize).offer(buffer);
+    }
+
+    /**
+     * 缓冲区租约，同一租约只能归还一次
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final LeaseState state;
+
+        private final Cleaner.Cleanable cleanable;
+
+        private Lease(LeaseState state) {
+            this.state = state;
+            this.cleanable = state.pool.leakDetection ? CLEANER.register(this, state) : null;
+        }
+
+        /**
+         * 租用的缓冲区
+         *
+         * @return 缓冲区
+         */
+        public ByteBuffer buffer() {
+            if (state.released.get()) {
+                throw new IllegalStateException("缓冲区已归还");
+            }
+            return state.buffer;
+        }
+
+        /**
+         * 归还缓冲区，之后不能再使用
+         */
+        @Override
+        public void close() {
+            if (state.released.compareAndSet(false, true)) {
+                state.pool.recycle(state.buffer);
+            }
+            if (cleanable != null) {
+                cleanable.clean();
+            }
+        }
+    }
+
+    /**
+     * 租约状态，不能引用租约本身，否则租约永远不会被回收
+     */
+    private static final class LeaseState implements Runnable {
+
+        private final ByteBufferPool pool;
+
+        private final ByteBuffer buffer;
+
+        private final Throwable allocationSite;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        LeaseState(ByteBufferPool pool, ByteBuffer buffer, Throwable allocationSite) {
+            this.pool = pool;
+            this.buffer = buffer;
+            this.allocationSite = allocationSite;
+        }
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                pool.leakCount.increment();
+                if (allocationSite != null) {
+                    log.warn("分片缓冲区未归还就被回收，大小 {}", buffer.capacity(), allocationSite);
+                } else {
+                    log.warn("分片缓冲区未归还就被回收，大小 {}，开启 DEBUG 日志可以查看租用位置", buffer.capacity());
+                }
+                pool.recycle(buffer);
+            }
+        }
+    }
+
+    /**
+     * 缓冲区池统计信息
+     *
+     * @param pooledBytes   空闲缓冲区总大小
+     * @param leasedBytes   租用中的缓冲区总大小，不含改用堆内存的缓冲区
+     * @param hitCount      复用次数
+     * @param missCount     新分配次数
+     * @param leakCount     未归还就被回收的次数
+     * @param fallbackCount 堆外缓冲区达到上限后改用堆内存的次数
+     */
+    public record Stats(long pooledBytes, long leasedBytes, long hitCount, long missCount, long leakCount, long fallbackCount) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.alltobs.oss.support;
+
+import com.alltobs.oss.properties.OssProperties;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.util.Locale;
+
+/**
+ * 类 Checksums
+ * </p>
+ * 数据完整性校验的配置解析和分片校验和处理。请求设置了 checksumAlgorithm 后，由 SDK 在发送请求体的同时计算校验和，
+ * 放在请求末尾的 trailer 中发送，不会预先读取一遍数据；存储服务收到的数据与校验和不一致时拒绝写入。
+ * 分片上传时每个分片单独计算，完成上传时需要带上各分片的校验和，存储服务据此生成整个对象的组合校验和。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public final class Checksums {
+
+    private Checksums() {
+    }
+
+    /**
+     * 上传使用的校验和算法
+     *
+     * @param checksum 配置
+     * @return 算法，未配置时为 null
+     */
+    public static ChecksumAlgorithm algorithm(OssProperties.Checksum checksum) {
+        if (!StringUtils.hasText(checksum.getAlgorithm())) {
+            return null;
+        }
+        ChecksumAlgorithm algorithm = ChecksumAlgorithm.fromValue(checksum.getAlgorithm().trim().toUpperCase(Locale.ROOT).replace("-", "").replace("_", ""));
+        if (algorithm == ChecksumAlgorithm.UNKNOWN_TO_SDK_VERSION) {
+            throw new IllegalArgumentException("不支持的校验和算法: " + checksum.getAlgorithm() + "，可选 CRC32、CRC32C、SHA1、SHA256");
+        }
+        return algorithm;
+    }
+
+    /**
+     * 下载使用的校验模式
+     *
+     * @param checksum 配置
+     * @return 校验模式，不校验时为 null
+     */
+    public static ChecksumMode mode(OssProperties.Checksum checksum) {
+        return checksum.isValidateOnDownload() ? ChecksumMode.ENABLED : null;
+    }
+
+    /**
+     * 由上传分片的响应生成已完成的分片，带上分片的校验和
+     *
+     * @param partNumber 分片编号
+     * @param response   上传分片的响应
+     * @return 已完成的分片
+     */
+    public static CompletedPart completedPart(int partNumber, UploadPartResponse response) {
+        return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).checksumCRC32(response.checksumCRC32()).checksumCRC32C(response.checksumCRC32C()).checksumSHA1(response.checksumSHA1()).checksumSHA256(response.checksumSHA256()).build();
+    }
+
+    /**
+     * 由 listParts 返回的分片生成已完成的分片，带上分片的校验和
+     *
+     * @param part 分片
+     * @return 已完成的分片
+     */
+    public static CompletedPart completedPart(Part part) {
+        return CompletedPart.builder().partNumber(part.partNumber()).eTag(part.eTag()).checksumCRC32(part.checksumCRC32()).checksumCRC32C(part.checksumCRC32C()).checksumSHA1(part.checksumSHA1()).checksumSHA256(part.checksumSHA256()).build();
+    }
+}
@@ -0,0 +1,213 @@
+package com.alltobs.oss.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 类 ExpiringCache
+ * </p>
+ * 基于 ConcurrentHashMap 的轻量级过期缓存，每个条目单独设置存活时间，读操作无锁。
+ * 超出容量时一次清理所有过期条目，仍然超出时按最近访问时间淘汰最久未访问的条目，直到容量的 90%，
+ * 每次清理腾出约 10% 的空间，遍历的开销分摊到之后的多次写入。同一时间只有一个线程执行清理。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class ExpiringCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    /**
+     * 清理后保留的条目数
+     */
+    private final int evictionTarget;
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 创建缓存
+     *
+     * @param maxSize 最大条目数
+     */
+    public ExpiringCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.evictionTarget = this.maxSize - Math.max(1, this.maxSize / 10);
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期时返回 null
+     *
+     * @param key 键
+     * @return 缓存值
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        long now = System.nanoTime();
+        if (entry.isExpired(now)) {
+            entries.remove(key, entry);
+            missCount.increment();
+            return null;
+        }
+        entry.accessedAt = now;
+        hitCount.increment();
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param key   键
+     * @param value 值
+     * @param ttl   存活时间，小于等于0时不写入
+     */
+    public void put(K key, V value, Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.put(key, new Entry<>(value, now + ttl.toNanos(), now));
+        if (entries.size() > maxSize && evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * 移除指定键
+     *
+     * @param key 键
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 移除所有满足条件的键
+     *
+     * @param predicate 条件
+     */
+    public void invalidateIf(Predicate<K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 当前条目数（包含尚未清理的过期条目）
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 获取命中统计
+     *
+     * @return 统计信息
+     */
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), entries.size());
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        List<Candidate<K, V>> candidates = new ArrayList<>(entries.size());
+        for (Map.Entry<K, Entry<V>> mapEntry : entries.entrySet()) {
+            Entry<V> entry = mapEntry.getValue();
+            if (entry.isExpired(now)) {
+                if (entries.remove(mapEntry.getKey(), entry)) {
+                    evictionCount.increment();
+                }
+            } else {
+                // 访问时间在排序期间可能变化，先取快照
+                candidates.add(new Candidate<>(mapEntry.getKey(), entry, entry.accessedAt));
+            }
+        }
+        int excess = entries.size() - evictionTarget;
+        if (excess <= 0) {
+            return;
+        }
+        candidates.sort(Comparator.comparingLong(Candidate::accessedAt));
+        for (int i = 0; i < excess && i < candidates.size(); i++) {
+            Candidate<K, V> candidate = candidates.get(i);
+            if (entries.remove(candidate.key(), candidate.entry())) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expiresAt;
+
+        /**
+         * 最近访问时间，只用于淘汰时排序，不要求精确
+         */
+        private volatile long accessedAt;
+
+        Entry(V value, long expiresAt, long accessedAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.accessedAt = accessedAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private record Candidate<K, V>(K key, Entry<V> entry, long accessedAt) {
+    }
+
+    /**
+     * 缓存统计信息
+     *
+     * @param hitCount      命中次数
+     * @param missCount     未命中次数
+     * @param evictionCount 淘汰次数
+     * @param size          当前条目数
+     */
+    public record CacheStats(long hitCount, long missCount, long evictionCount, long size) {
+
+        /**
+         * 命中率
+         *
+         * @return 命中率，没有请求时为 0
+         */
+        public double hitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0D : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.alltobs.oss.support;
+
+import software.amazon.awssdk.http.ContentStreamProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 类 FileRegionContentStreamProvider
+ * </p>
+ * 以文件中的一段区域作为请求体，通过 FileChannel 的定位读取直接读入 SDK 提供的缓冲区，
+ * 不会把整个区域复制到堆内存中。定位读取不修改通道位置，多个分片可以共用同一个 FileChannel 并发读取。
+ * SDK 重试时会重新调用 newStream，从区域起点重新读取。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class FileRegionContentStreamProvider implements ContentStreamProvider {
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final long position;
+
+    private final long length;
+
+    private FileRegionContentStreamProvider(Path file, FileChannel channel, long position, long length) {
+        if (position < 0 || length < 0) {
+            throw new IllegalArgumentException("position 和 length 不能为负数");
+        }
+        this.file = file;
+        this.channel = channel;
+        this.position = position;
+        this.length = length;
+    }
+
+    /**
+     * 读取文件中的一段区域，每次 newStream 打开新的通道，流关闭时一并关闭
+     *
+     * @param file     文件路径
+     * @param position 起始位置
+     * @param length   长度
+     * @return 请求体提供者
+     */
+    public static FileRegionContentStreamProvider of(Path file, long position, long length) {
+        return new FileRegionContentStreamProvider(file, null, position, length);
+    }
+
+    /**
+     * 读取已打开通道中的一段区域，通道由调用方负责关闭
+     *
+     * @param channel  文件通道
+     * @param position 起始位置
+     * @param length   长度
+     * @return 请求体提供者
+     */
+    public static FileRegionContentStreamProvider of(FileChannel channel, long position, long length) {
+        return new FileRegionContentStreamProvider(null, channel, position, length);
+    }
+
+    @Override
+    public InputStream newStream() {
+        if (channel != null) {
+            return new RegionInputStream(channel, false);
+        }
+        try {
+            return new RegionInputStream(FileChannel.open(file, StandardOpenOption.READ), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class RegionInputStream extends InputStream {
+
+        private final FileChannel source;
+
+        private final boolean closeSource;
+
+        private long offset;
+
+        RegionInputStream(FileChannel source, boolean closeSource) {
+            this.source = source;
+            this.closeSource = closeSource;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long remaining = length - offset;
+            if (remaining <= 0) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int read = source.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position + offset);
+            if (read < 0) {
+                throw new IOException("文件长度小于指定区域，position=" + position + " length=" + length);
+            }
+            offset += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, length - offset));
+            offset += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, length - offset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closeSource) {
+                source.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.alltobs.oss.support;
+
+import com.alltobs.oss.model.UploadSession;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类 FileUploadSessionStore
+ * </p>
+ * 基于本地日志文件的会话存储。每个上传一个日志文件，第一行为会话信息，之后每完成一个分片追加一行并刷盘，
+ * 进程崩溃时最多丢失正在写入的一行，该分片续传时重新上传即可。启动时加载目录中的所有会话。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+public class FileUploadSessionStore implements UploadSessionStore {
+
+    private static final String SUFFIX = ".journal";
+
+    private static final String SESSION = "S";
+
+    private static final String PART = "P";
+
+    private final Path directory;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory 日志目录，不存在时自动创建
+     */
+    public FileUploadSessionStore(String directory) {
+        this.directory = Paths.get(directory);
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建上传会话目录失败: " + directory, e);
+        }
+        load();
+    }
+
+    @Override
+    public void save(UploadSession session) {
+        String line = String.join("\t", SESSION, encode(session.getUploadId()), encode(session.getBucketName()), encode(session.getObjectName()), encode(session.getContentType()), String.valueOf(session.getPartSize()), String.valueOf(session.getTotalSize()), encode(session.getFingerprint()), String.valueOf(session.getCreatedAt().toEpochMilli()), encode(session.getProfile()));
+        append(session, line, StandardOpenOption.TRUNCATE_EXISTING);
+        sessions.put(session.getUploadId(), session);
+    }
+
+    @Override
+    public void partCompleted(String uploadId, int partNumber, String eTag) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            return;
+        }
+        session.partCompleted(partNumber, eTag);
+        append(session, String.join("\t", PART, String.valueOf(partNumber), encode(eTag)), StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public UploadSession get(String uploadId) {
+        return sessions.get(uploadId);
+    }
+
+    @Override
+    public List<UploadSession> list() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    @Override
+    public void remove(String uploadId) {
+        sessions.remove(uploadId);
+        try {
+            Files.deleteIfExists(journal(uploadId));
+        } catch (IOException e) {
+            log.warn("删除上传会话日志失败 uploadId={}：{}", uploadId, e.getMessage());
+        }
+    }
+
+    private void append(UploadSession session, String line, StandardOpenOption mode) {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        // 同一上传的多个分片可能同时完成，按会话串行写入
+        synchronized (session) {
+            try (FileChannel channel = FileChannel.open(journal(session.getUploadId()), StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("写入上传会话日志失败: " + session.getUploadId(), e);
+            }
+        }
+    }
+
+    private void load() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                UploadSession session = read(file);
+                if (session != null) {
+                    sessions.put(session.getUploadId(), session);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("加载上传会话失败：{}", e.getMessage());
+        }
+    }
+
+    private UploadSession read(Path file) {
+        try {
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            // 最后一行没有换行符说明写入时中断，忽略
+            int end = content.lastIndexOf('\n');
+            if (end < 0) {
+                return null;
+            }
+            String[] lines = content.substring(0, end).split("\n");
+            String[] header = lines[0].split("\t", -1);
+            // 旧版本的日志没有 profile 字段
+            if ((header.length != 9 && header.length != 10) || !SESSION.equals(header[0])) {
+                log.warn("忽略无法识别的上传会话日志: {}", file);
+                return null;
+            }
+            UploadSession session = new UploadSession(decode(header[1]), decode(header[2]), decode(header[3]), decode(header[4]), Long.parseLong(header[5]), Long.parseLong(header[6]), decode(header[7]), Instant.ofEpochMilli(Long.parseLong(header[8])), header.length == 10 ? decode(header[9]) : null);
+            for (int i = 1; i < lines.length; i++) {
+                String[] part = lines[i].split("\t", -1);
+                if (part.length == 3 && PART.equals(part[0])) {
+                    session.partCompleted(Integer.parseInt(part[1]), decode(part[2]));
+                }
+            }
+            return session;
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取上传会话日志失败 {}：{}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path journal(String uploadId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(uploadId.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return value.isEmpty() ? null : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
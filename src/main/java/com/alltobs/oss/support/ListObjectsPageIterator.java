@@ -0,0 +1,97 @@
+package com.alltobs.oss.support;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 类 ListObjectsPageIterator
+ * </p>
+ * 按 continuation token 逐页获取 listObjectsV2 结果的迭代器，只有在消费到下一页时才发起请求，
+ * 内存中最多保留当前页（开启预取时再加一页）。
+ * 传入 prefetchExecutor 时，返回当前页的同时在后台获取下一页。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class ListObjectsPageIterator implements Iterator<ListObjectsV2Response> {
+
+    private final S3Client s3Client;
+
+    private final ListObjectsV2Request request;
+
+    private final Executor prefetchExecutor;
+
+    /**
+     * 下一页，为 null 表示尚未发起请求
+     */
+    private CompletableFuture<ListObjectsV2Response> nextPage;
+
+    /**
+     * 下一次请求使用的 continuation token
+     */
+    private String continuationToken;
+
+    private boolean finished;
+
+    /**
+     * 创建迭代器
+     *
+     * @param s3Client         S3客户端
+     * @param request          列表请求，continuationToken 会被覆盖
+     * @param prefetchExecutor 预取线程池，为 null 时不预取
+     */
+    public ListObjectsPageIterator(S3Client s3Client, ListObjectsV2Request request, Executor prefetchExecutor) {
+        this.s3Client = s3Client;
+        this.request = request;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !finished || nextPage != null;
+    }
+
+    @Override
+    public ListObjectsV2Response next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ListObjectsV2Response page = nextPage != null ? join(nextPage) : fetch(continuationToken);
+        nextPage = null;
+
+        if (Boolean.TRUE.equals(page.isTruncated()) && page.nextContinuationToken() != null) {
+            continuationToken = page.nextContinuationToken();
+            if (prefetchExecutor != null) {
+                String token = continuationToken;
+                nextPage = CompletableFuture.supplyAsync(() -> fetch(token), prefetchExecutor);
+            }
+        } else {
+            finished = true;
+        }
+        return page;
+    }
+
+    private ListObjectsV2Response fetch(String token) {
+        return s3Client.listObjectsV2(request.toBuilder().continuationToken(token).build());
+    }
+
+    private static ListObjectsV2Response join(CompletableFuture<ListObjectsV2Response> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SdkException sdkException) {
+                throw sdkException;
+            }
+            throw e;
+        }
+    }
+}
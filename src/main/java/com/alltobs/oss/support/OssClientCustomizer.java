@@ -0,0 +1,36 @@
+package com.alltobs.oss.support;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+
+/**
+ * 接口 OssClientCustomizer
+ * </p>
+ * OssClientFactory 创建 S3Client / S3AsyncClient 时的扩展点，可以添加 ExecutionInterceptor、MetricPublisher 等。
+ * 预签名只在本地计算，不经过 SDK 的拦截器，完成后通过 onPresign 回调。
+ * CRT 异步客户端不支持 ClientOverrideConfiguration，不会应用 customize。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public interface OssClientCustomizer {
+
+    /**
+     * 自定义客户端配置
+     *
+     * @param builder 客户端覆盖配置
+     */
+    void customize(ClientOverrideConfiguration.Builder builder);
+
+    /**
+     * 预签名完成后回调
+     *
+     * @param operation     操作名称，如 PresignGetObject
+     * @param bucket        实际存储的 bucket
+     * @param key           实际对象 key
+     * @param durationNanos 耗时，单位纳秒
+     * @param success       是否成功
+     */
+    default void onPresign(String operation, String bucket, String key, long durationNanos, boolean success) {
+    }
+}
@@ -0,0 +1,265 @@
+package com.alltobs.oss.support;
+
+import com.alltobs.oss.properties.OssProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 类 OssClientFactory
+ * </p>
+ * 根据 OssProperties 创建 S3Client、S3AsyncClient 和 S3Presigner，并应用 oss.http 下的连接池配置。
+ * 同一个工厂创建的客户端共用一个 HTTP 客户端（连接池），关闭工厂时一并关闭；
+ * 单独关闭 S3Client 不会关闭共用的连接池。
+ * 注册的 OssClientCustomizer 会应用到创建的每个客户端上。
+ * 配置了 oss.rate-limit 或 oss.adaptive-concurrency 时，创建的客户端共用同一个 RequestThrottle。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+@Slf4j
+public class OssClientFactory implements AutoCloseable {
+
+    private final OssProperties.Http http;
+
+    private final OssProperties.Async async;
+
+    private final List<OssClientCustomizer> customizers;
+
+    private volatile SdkHttpClient httpClient;
+
+    private volatile SdkAsyncHttpClient asyncHttpClient;
+
+    private final ByteBufferPool bufferPool;
+
+    private final RequestThrottle requestThrottle;
+
+    /**
+     * 创建工厂
+     *
+     * @param ossProperties 配置，使用其中的 http 和 async 配置构建连接池
+     */
+    public OssClientFactory(OssProperties ossProperties) {
+        this(ossProperties, List.of());
+    }
+
+    /**
+     * 创建工厂
+     *
+     * @param ossProperties 配置，使用其中的 http 和 async 配置构建连接池
+     * @param customizers   客户端扩展（拦截器、指标等）
+     */
+    public OssClientFactory(OssProperties ossProperties, List<OssClientCustomizer> customizers) {
+        this.http = ossProperties.getHttp();
+        this.async = ossProperties.getAsync();
+        this.customizers = List.copyOf(customizers);
+        OssProperties.BufferPool pool = ossProperties.getBufferPool();
+        this.bufferPool = new ByteBufferPool(pool.isDirect(), pool.getMaxPooledBytes(), pool.getMaxLeasedBytes(), pool.isLeakDetection());
+        this.requestThrottle = RequestThrottle.isEnabled(ossProperties) ? new RequestThrottle(ossProperties.getRateLimit(), ossProperties.getAdaptiveConcurrency()) : null;
+    }
+
+    /**
+     * 创建同步客户端
+     *
+     * @param properties 连接配置（endpoint、region、密钥等）
+     * @return S3Client
+     */
+    public S3Client createClient(OssProperties properties) {
+        return createClient(properties, List.of());
+    }
+
+    /**
+     * 创建同步客户端，并添加调用方自己的拦截器
+     *
+     * @param properties   连接配置（endpoint、region、密钥等）
+     * @param interceptors 拦截器，在 OssClientCustomizer 之前添加
+     * @return S3Client
+     */
+    public S3Client createClient(OssProperties properties, List<ExecutionInterceptor> interceptors) {
+        return S3Client.builder().credentialsProvider(credentialsProvider(properties)).region(Region.of(properties.getRegion())).serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(properties.getPathStyleAccess()).build()).endpointOverride(URI.create(properties.getEndpoint())).httpClient(httpClient()).overrideConfiguration(builder -> {
+            interceptors.forEach(builder::addExecutionInterceptor);
+            customize(builder);
+            throttle(builder, true);
+        }).build();
+    }
+
+    /**
+     * 创建异步客户端，oss.async.crt=true 时创建基于 CRT 的客户端（CRT 客户端自带连接管理，不使用共用连接池，也不支持限流）
+     *
+     * @param properties 连接配置（endpoint、region、密钥等）
+     * @return S3AsyncClient
+     */
+    public S3AsyncClient createAsyncClient(OssProperties properties) {
+        if (async.isCrt()) {
+            return S3AsyncClient.crtBuilder().credentialsProvider(credentialsProvider(properties)).region(Region.of(properties.getRegion())).endpointOverride(URI.create(properties.getEndpoint())).forcePathStyle(properties.getPathStyleAccess()).maxConcurrency(async.getMaxConcurrency()).targetThroughputInGbps(async.getTargetThroughputInGbps()).minimumPartSizeInBytes(async.getMinimumPartSize()).httpConfiguration(c -> c.connectionTimeout(http.getConnectionTimeout())).build();
+        }
+        return S3AsyncClient.builder().credentialsProvider(credentialsProvider(properties)).region(Region.of(properties.getRegion())).serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(properties.getPathStyleAccess()).build()).endpointOverride(URI.create(properties.getEndpoint())).httpClient(asyncHttpClient()).overrideConfiguration(builder -> {
+            customize(builder);
+            throttle(builder, false);
+        }).build();
+    }
+
+    /**
+     * 创建预签名工具，预签名只在本地计算签名，不发起网络请求，因此不需要连接池。
+     * previewUrl 为空时使用 endpoint
+     *
+     * @param properties 连接配置（endpoint、region、密钥等）
+     * @return S3Presigner
+     */
+    public S3Presigner createPresigner(OssProperties properties) {
+        String endpoint = StringUtils.hasText(properties.getPreviewUrl()) ? properties.getPreviewUrl() : properties.getEndpoint();
+        return S3Presigner.builder().credentialsProvider(credentialsProvider(properties)).region(Region.of(properties.getRegion())).serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(properties.getPathStyleAccess()).build()).endpointOverride(URI.create(endpoint)).build();
+    }
+
+    /**
+     * 执行预签名并通知 OssClientCustomizer
+     *
+     * @param operation 操作名称，如 PresignGetObject
+     * @param bucket    实际存储的 bucket
+     * @param key       实际对象 key
+     * @param action    预签名操作
+     * @param <T>       预签名结果类型
+     * @return 预签名结果
+     */
+    public <T> T presign(String operation, String bucket, String key, Supplier<T> action) {
+        if (customizers.isEmpty()) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = action.get();
+            success = true;
+            return result;
+        } finally {
+            long duration = System.nanoTime() - start;
+            for (OssClientCustomizer customizer : customizers) {
+                customizer.onPresign(operation, bucket, key, duration, success);
+            }
+        }
+    }
+
+    /**
+     * 共用的同步 HTTP 客户端，首次使用时创建
+     *
+     * @return SdkHttpClient
+     */
+    public SdkHttpClient httpClient() {
+        if (httpClient == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    httpClient = http.getClientType() == OssProperties.HttpClientType.URL_CONNECTION ? UrlConnectionClients.create(http) : apacheHttpClient(http);
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    /**
+     * 共用的异步 HTTP 客户端，首次使用时创建
+     *
+     * @return SdkAsyncHttpClient
+     */
+    public SdkAsyncHttpClient asyncHttpClient() {
+        if (asyncHttpClient == null) {
+            synchronized (this) {
+                if (asyncHttpClient == null) {
+                    NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder().maxConcurrency(async.getMaxConcurrency()).connectionTimeout(http.getConnectionTimeout()).readTimeout(http.getSocketTimeout()).writeTimeout(http.getSocketTimeout()).connectionAcquisitionTimeout(http.getConnectionAcquisitionTimeout()).connectionMaxIdleTime(http.getConnectionMaxIdleTime()).useIdleConnectionReaper(http.isUseIdleConnectionReaper()).tcpKeepAlive(http.isTcpKeepAlive());
+                    if (http.getConnectionTimeToLive() != null && !http.getConnectionTimeToLive().isZero()) {
+                        builder.connectionTimeToLive(http.getConnectionTimeToLive());
+                    }
+                    asyncHttpClient = builder.build();
+                }
+            }
+        }
+        return asyncHttpClient;
+    }
+
+    /**
+     * 共用的分片缓冲区池
+     *
+     * @return ByteBufferPool
+     */
+    public ByteBufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * 共用的限流器
+     *
+     * @return RequestThrottle，未配置限流和自适应并发控制时为 null
+     */
+    public RequestThrottle requestThrottle() {
+        return requestThrottle;
+    }
+
+    @Override
+    public synchronized void close() {
+        bufferPool.clear();
+        if (httpClient != null) {
+            httpClient.close();
+            httpClient = null;
+        }
+        if (asyncHttpClient != null) {
+            asyncHttpClient.close();
+            asyncHttpClient = null;
+        }
+        if (requestThrottle != null) {
+            requestThrottle.close();
+        }
+    }
+
+    private void customize(ClientOverrideConfiguration.Builder builder) {
+        customizers.forEach(customizer -> customizer.customize(builder));
+    }
+
+    /**
+     * 限流拦截器放在最后，之后不会再有拦截器在 beforeExecution 中抛出异常导致许可无法归还
+     */
+    private void throttle(ClientOverrideConfiguration.Builder builder, boolean blocking) {
+        if (requestThrottle != null) {
+            builder.addExecutionInterceptor(requestThrottle.interceptor(blocking));
+        }
+    }
+
+    private static SdkHttpClient apacheHttpClient(OssProperties.Http http) {
+        ApacheHttpClient.Builder builder = ApacheHttpClient.builder().maxConnections(http.getMaxConnections()).connectionTimeout(http.getConnectionTimeout()).socketTimeout(http.getSocketTimeout()).connectionAcquisitionTimeout(http.getConnectionAcquisitionTimeout()).connectionMaxIdleTime(http.getConnectionMaxIdleTime()).useIdleConnectionReaper(http.isUseIdleConnectionReaper()).tcpKeepAlive(http.isTcpKeepAlive());
+        if (http.getConnectionTimeToLive() != null && !http.getConnectionTimeToLive().isZero()) {
+            builder.connectionTimeToLive(http.getConnectionTimeToLive());
+        }
+        return builder.build();
+    }
+
+    private static StaticCredentialsProvider credentialsProvider(OssProperties properties) {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey()));
+    }
+
+    /**
+     * url-connection-client 是可选依赖，单独放在内部类中，未引入时不会加载
+     */
+    private static final class UrlConnectionClients {
+
+        static SdkHttpClient create(OssProperties.Http http) {
+            // URLConnection 由 JDK 管理连接复用，不支持连接池大小等配置
+            return UrlConnectionHttpClient.builder().connectionTimeout(http.getConnectionTimeout()).socketTimeout(http.getSocketTimeout()).build();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.alltobs.oss.support;
+
+import com.alltobs.oss.properties.OssProperties;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 类 RequestThrottle
+ * </p>
+ * 客户端限流和自适应并发控制，通过 ExecutionInterceptor 作用于客户端的每个操作。
+ * 请求开始时依次获取全局令牌、匹配规则的令牌和并发许可，等待超时则请求失败，不会发送到存储服务。
+ * 同步客户端的重试在发送前也要获取令牌，存储服务返回 503 SlowDown 时 SDK 的重试不会放大请求量。
+ * 异步客户端的请求可能由 SDK 的完成线程发起（如 thenCompose 串联的请求和分页的后续页），不能在拦截器里等待，
+ * 需要在发起请求前通过 {@link #reserve(String, String)} 异步获取：令牌不足时延迟到预约的时间，并发达到上限时排队等待
+ * 归还的许可，都不占用线程，获取后把许可随请求交给拦截器。拦截器对没有预先获取许可的异步请求不等待，
+ * 没有令牌或并发许可时直接失败，重试也不再获取令牌。
+ * 同一个 OssClientFactory 创建的客户端共用限流状态。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class RequestThrottle implements AutoCloseable {
+
+    private static final ExecutionAttribute<Permit> PERMIT = new ExecutionAttribute<>("OssThrottlePermit");
+
+    private static final ExecutionAttribute<Reservation> RESERVATION = new ExecutionAttribute<>("OssThrottleReservation");
+
+    private final TokenBucket globalBucket;
+
+    private final List<Rule> rules;
+
+    private final long rateLimitWaitNanos;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final long concurrencyWaitNanos;
+
+    private final LongAdder throttledCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * 异步获取时延迟到预约时间和检查排队超时的线程
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param rateLimit           限流配置
+     * @param adaptiveConcurrency 自适应并发控制配置
+     */
+    public RequestThrottle(OssProperties.RateLimit rateLimit, OssProperties.AdaptiveConcurrency adaptiveConcurrency) {
+        this.globalBucket = rateLimit.getPermitsPerSecond() > 0 ? new TokenBucket(rateLimit.getPermitsPerSecond(), rateLimit.getBurst()) : null;
+        this.rules = rateLimit.getRules().stream().map(rule -> new Rule(rule.getBucket(), rule.getPrefix() == null ? "" : rule.getPrefix(), new TokenBucket(rule.getPermitsPerSecond(), rule.getBurst()))).sorted(Comparator.comparingInt((Rule rule) -> rule.prefix().length()).reversed()).toList();
+        this.rateLimitWaitNanos = rateLimit.getMaxWait().toNanos();
+        this.limiter = adaptiveConcurrency.isEnabled() ? new AdaptiveConcurrencyLimiter(adaptiveConcurrency.getInitialLimit(), adaptiveConcurrency.getMinLimit(), adaptiveConcurrency.getMaxLimit(), adaptiveConcurrency.getBackoffRatio()) : null;
+        this.concurrencyWaitNanos = adaptiveConcurrency.getMaxWait().toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "oss-throttle");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 是否配置了限流或自适应并发控制
+     *
+     * @param properties 配置
+     * @return 是否需要创建 RequestThrottle
+     */
+    public static boolean isEnabled(OssProperties properties) {
+        return properties.getRateLimit().getPermitsPerSecond() > 0 || !properties.getRateLimit().getRules().isEmpty() || properties.getAdaptiveConcurrency().isEnabled();
+    }
+
+    /**
+     * 创建拦截器
+     *
+     * @param blocking 是否为同步客户端，同步客户端等待令牌和并发许可，重试也需要获取令牌；
+     *                 异步客户端使用预先获取的许可，没有时不等待
+     * @return 拦截器
+     */
+    ExecutionInterceptor interceptor(boolean blocking) {
+        return new Interceptor(blocking);
+    }
+
+    /**
+     * 异步获取令牌和并发许可，不阻塞线程。完成后把 {@link Reservation#overrideConfiguration()} 设置到请求上，
+     * 拦截器直接使用已获取的许可；请求最终没有发出时调用 {@link Reservation#cancel()} 归还许可。
+     * 令牌到期和排队等待的许可可能在限流线程或归还许可的线程上完成，后续操作不应阻塞
+     *
+     * @param bucket 请求的 bucket
+     * @param key    请求的对象 key 或前缀，用于匹配限流规则
+     * @return 获取的许可，等待超时时以 SdkClientException 失败
+     */
+    public CompletableFuture<Reservation> reserve(String bucket, String key) {
+        CompletableFuture<Void> tokens;
+        try {
+            tokens = reserveTokens(bucket, key);
+        } catch (SdkClientException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (limiter == null) {
+            return tokens.thenApply(ignored -> new Reservation(0));
+        }
+        return tokens.thenCompose(ignored -> limiter.acquireAsync(concurrencyWaitNanos, scheduler)).thenApply(generation -> {
+            if (generation < 0) {
+                rejectedCount.increment();
+                throw SdkClientException.create("等待并发许可超时，当前并发上限 " + limiter.limit());
+            }
+            return new Reservation(generation);
+        });
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return 统计信息
+     */
+    public Stats stats() {
+        return new Stats(limiter == null ? 0 : limiter.limit(), limiter == null ? 0 : limiter.inFlight(), throttledCount.sum(), rejectedCount.sum());
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void acquireTokens(SdkRequest request, long waitNanos) {
+        if (globalBucket != null) {
+            acquire(globalBucket, waitNanos);
+        }
+        if (rules.isEmpty()) {
+            return;
+        }
+        String bucket = request.getValueForField("Bucket", String.class).orElse(null);
+        String key = request.getValueForField("Key", String.class).or(() -> request.getValueForField("Prefix", String.class)).orElse(null);
+        TokenBucket ruleBucket = ruleBucket(bucket, key);
+        if (ruleBucket != null) {
+            acquire(ruleBucket, waitNanos);
+        }
+    }
+
+    /**
+     * 匹配前缀最长的规则
+     */
+    private TokenBucket ruleBucket(String bucket, String key) {
+        String target = key == null ? "" : key;
+        for (Rule rule : rules) {
+            if (rule.bucket().equals(bucket) && target.startsWith(rule.prefix())) {
+                return rule.tokenBucket();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 预约全局令牌和规则令牌，在两者中较晚的预约时间完成
+     */
+    private CompletableFuture<Void> reserveTokens(String bucket, String key) {
+        long waitNanos = Math.max(reserve(globalBucket), reserve(ruleBucket(bucket, key)));
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        scheduler.schedule(() -> future.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    private long reserve(TokenBucket tokenBucket) {
+        if (tokenBucket == null) {
+            return 0;
+        }
+        long waitNanos = tokenBucket.reserve(rateLimitWaitNanos);
+        if (waitNanos < 0) {
+            rejectedCount.increment();
+            throw SdkClientException.create("等待限流令牌超时");
+        }
+        return waitNanos;
+    }
+
+    private void acquire(TokenBucket tokenBucket, long waitNanos) {
+        try {
+            if (!tokenBucket.tryAcquire(waitNanos)) {
+                rejectedCount.increment();
+                throw SdkClientException.create("等待限流令牌超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AbortedException.create("等待限流令牌时被中断", e);
+        }
+    }
+
+    private long acquirePermit(long waitNanos) {
+        try {
+            long generation = limiter.tryAcquire(waitNanos);
+            if (generation < 0) {
+                rejectedCount.increment();
+                throw SdkClientException.create("等待并发许可超时，当前并发上限 " + limiter.limit());
+            }
+            return generation;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AbortedException.create("等待并发许可时被中断", e);
+        }
+    }
+
+    /**
+     * 同一个操作的许可，拦截器的失败回调可能在 afterExecution 之后再次调用，只归还一次
+     */
+    private static final class Permit {
+
+        private volatile long generation;
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        private final AtomicBoolean throttled = new AtomicBoolean();
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * 异步预先获取的令牌和并发许可，只能交给一个请求使用。
+     * 分页的后续页会复制第一页的请求配置，拿到已使用的许可时按没有预先获取处理
+     */
+    public final class Reservation {
+
+        private final long generation;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final AwsRequestOverrideConfiguration overrideConfiguration;
+
+        private Reservation(long generation) {
+            this.generation = generation;
+            this.overrideConfiguration = AwsRequestOverrideConfiguration.builder().putExecutionAttribute(RESERVATION, this).build();
+        }
+
+        /**
+         * 携带许可的请求配置，设置到请求的 overrideConfiguration 上
+         *
+         * @return 请求配置
+         */
+        public AwsRequestOverrideConfiguration overrideConfiguration() {
+            return overrideConfiguration;
+        }
+
+        /**
+         * 请求没有发出时归还许可，请求已经使用许可时不做任何事，可以重复调用
+         */
+        public void cancel() {
+            if (claimed.compareAndSet(false, true) && limiter != null) {
+                limiter.release(generation, false);
+            }
+        }
+    }
+
+    private final class Interceptor implements ExecutionInterceptor {
+
+        private final boolean blocking;
+
+        Interceptor(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+            Reservation reservation = executionAttributes.getAttribute(RESERVATION);
+            if (reservation != null && reservation.claimed.compareAndSet(false, true)) {
+                executionAttributes.putAttribute(PERMIT, new Permit(reservation.generation));
+                return;
+            }
+            acquireTokens(context.request(), blocking ? rateLimitWaitNanos : 0);
+            executionAttributes.putAttribute(PERMIT, new Permit(limiter == null ? 0 : acquirePermit(blocking ? concurrencyWaitNanos : 0)));
+        }
+
+        @Override
+        public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+            Permit permit = executionAttributes.getAttribute(PERMIT);
+            if (permit == null || permit.attempts.incrementAndGet() == 1) {
+                return;
+            }
+            // 重试属于降低上限之后的新一轮，持续被限流时可以继续降低
+            if (limiter != null) {
+                permit.generation = limiter.generation();
+            }
+            if (blocking) {
+                acquireTokens(context.request(), rateLimitWaitNanos);
+            }
+        }
+
+        @Override
+        public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+            int status = context.httpResponse().statusCode();
+            if (status != 503 && status != 429) {
+                return;
+            }
+            throttledCount.increment();
+            Permit permit = executionAttributes.getAttribute(PERMIT);
+            if (permit != null && limiter != null) {
+                permit.throttled.set(true);
+                limiter.throttled(permit.generation);
+            }
+        }
+
+        @Override
+        public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+            release(executionAttributes, true);
+        }
+
+        @Override
+        public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+            release(executionAttributes, false);
+        }
+
+        private void release(ExecutionAttributes executionAttributes, boolean success) {
+            Permit permit = executionAttributes.getAttribute(PERMIT);
+            if (permit != null && limiter != null && permit.released.compareAndSet(false, true)) {
+                limiter.release(permit.generation, success && !permit.throttled.get());
+            }
+        }
+    }
+
+    private record Rule(String bucket, String prefix, TokenBucket tokenBucket) {
+    }
+
+    /**
+     * 限流统计信息
+     *
+     * @param concurrencyLimit 当前并发上限，未启用自适应并发控制时为 0
+     * @param inFlight         正在执行的请求数，未启用自适应并发控制时为 0
+     * @param throttledCount   存储服务返回 503 或 429 的次数（含重试）
+     * @param rejectedCount    等待令牌或并发许可超时的次数
+     */
+    public record Stats(int concurrencyLimit, int inFlight, long throttledCount, long rejectedCount) {
+    }
+}
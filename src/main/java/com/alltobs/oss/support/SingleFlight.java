@@ -0,0 +1,102 @@
+package com.alltobs.oss.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 类 SingleFlight
+ * </p>
+ * 合并相同 key 的并发请求：同一时刻只有第一个调用方（leader）真正执行，其他调用方等待并共享它的结果或异常。
+ * 执行结束后立即移除，之后的调用会重新执行，本身不缓存结果。
+ *
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder sharedCount = new LongAdder();
+
+    /**
+     * 执行或加入正在执行的请求
+     *
+     * @param key    请求键
+     * @param loader 实际执行的请求，只在 leader 线程中调用
+     * @return 结果，shared 为 true 表示结果来自其他线程的请求
+     */
+    public Result<V> execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            sharedCount.increment();
+            try {
+                return new Result<>(existing.join(), true);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        executedCount.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 让之后的调用不再加入当前正在执行的请求，例如对象已被修改时
+     *
+     * @param key 请求键
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return 统计信息
+     */
+    public Stats stats() {
+        return new Stats(executedCount.sum(), sharedCount.sum());
+    }
+
+    /**
+     * 请求结果
+     *
+     * @param value  结果
+     * @param shared 是否来自其他线程的请求
+     * @param <V>    结果类型
+     */
+    public record Result<V>(V value, boolean shared) {
+    }
+
+    /**
+     * 统计信息
+     *
+     * @param executedCount 实际执行的请求数
+     * @param sharedCount   共享其他请求结果的次数
+     */
+    public record Stats(long executedCount, long sharedCount) {
+    }
+}
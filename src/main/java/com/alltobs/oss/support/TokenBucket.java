@@ -0,0 +1,74 @@
+package com.alltobs.oss.support;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类 TokenBucket
+ * </p>
+ * 令牌桶限流器。令牌按固定速率补充，桶满时最多允许 burst 个请求同时通过。
+ * 获取令牌时先预约再在锁外等待，等待中的线程不会阻塞其他线程预约。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+
+    private final double capacity;
+
+    private double tokens;
+
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst            桶容量，小于 1 时与每秒令牌数相同
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("每秒令牌数必须大于 0: " + permitsPerSecond);
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst > 0 ? burst : permitsPerSecond);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一个令牌，没有令牌时等待
+     *
+     * @param timeoutNanos 最长等待时间，单位纳秒
+     * @return 需要等待的时间超过 timeoutNanos 时返回 false，此时不消耗令牌
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+        long waitNanos = reserve(timeoutNanos);
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+
+    /**
+     * 预约一个令牌，令牌数可以为负，表示已预约的令牌。不等待，由调用方在返回的时间之后再发起请求
+     *
+     * @param timeoutNanos 最长等待时间，单位纳秒
+     * @return 需要等待的纳秒数，超过 timeoutNanos 时返回 -1，此时不消耗令牌
+     */
+    public synchronized long reserve(long timeoutNanos) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+        long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+        if (waitNanos > timeoutNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+}
@@ -0,0 +1,56 @@
+package com.alltobs.oss.support;
+
+import com.alltobs.oss.model.UploadSession;
+
+import java.util.List;
+
+/**
+ * 类 UploadSessionStore
+ * </p>
+ * 可续传分片上传会话的存储，默认实现为本地日志文件 {@link FileUploadSessionStore}。
+ * 需要多实例共享时可以注册该类型的 Bean，使用数据库或 Redis 等实现。
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+public interface UploadSessionStore {
+
+    /**
+     * 保存新的会话
+     *
+     * @param session 会话
+     */
+    void save(UploadSession session);
+
+    /**
+     * 记录已完成的分片，会被多个线程同时调用
+     *
+     * @param uploadId   上传ID
+     * @param partNumber 分片编号
+     * @param eTag       分片 ETag
+     */
+    void partCompleted(String uploadId, int partNumber, String eTag);
+
+    /**
+     * 查询会话
+     *
+     * @param uploadId 上传ID
+     * @return 会话，不存在时为 null
+     */
+    UploadSession get(String uploadId);
+
+    /**
+     * 所有未结束的会话
+     *
+     * @return 会话列表
+     */
+    List<UploadSession> list();
+
+    /**
+     * 删除会话，上传完成或终止后调用
+     *
+     * @param uploadId 上传ID
+     */
+    void remove(String uploadId);
+}
@@ -0,0 +1,130 @@
+package com.alltobs.oss.service;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetBucketLifecycleConfigurationRequest;
+import software.amazon.awssdk.services.s3.model.GetBucketLifecycleConfigurationResponse;
+import software.amazon.awssdk.services.s3.model.LifecycleRule;
+import software.amazon.awssdk.services.s3.model.PutBucketLifecycleConfigurationRequest;
+import software.amazon.awssdk.services.s3.model.PutBucketLifecycleConfigurationResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 类 LifecycleManagerTest
+ * </p>
+ * 按 ID 合并生命周期规则：新增、替换和内容未变化时不写入
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+class LifecycleManagerTest {
+
+    private static final String BUCKET = "bucket";
+
+    @Test
+    void mergeAddsRuleAndKeepsExistingRules() {
+        LifecycleRule existing = LifecycleManager.expireByPrefixRule("logs", "logs/", 7);
+        FakeS3Client s3Client = new FakeS3Client(List.of(existing));
+        LifecycleManager manager = new LifecycleManager(s3Client);
+
+        LifecycleRule added = LifecycleManager.expireByTagRule(30);
+        assertTrue(manager.mergeRules(BUCKET, List.of(added)));
+        assertEquals(List.of(existing, added), s3Client.rules);
+        assertEquals(1, s3Client.putCount);
+    }
+
+    @Test
+    void mergeReplacesRuleWithSameId() {
+        LifecycleRule other = LifecycleManager.expireByTagRule(30);
+        FakeS3Client s3Client = new FakeS3Client(List.of(LifecycleManager.expireByPrefixRule("logs", "logs/", 7), other));
+        LifecycleManager manager = new LifecycleManager(s3Client);
+
+        LifecycleRule replacement = LifecycleManager.expireByPrefixRule("logs", "logs/", 14);
+        assertTrue(manager.mergeRules(BUCKET, List.of(replacement)));
+        assertEquals(List.of(replacement, other), s3Client.rules);
+    }
+
+    @Test
+    void mergeWithoutExistingConfigurationCreatesIt() {
+        FakeS3Client s3Client = new FakeS3Client(List.of());
+        LifecycleManager manager = new LifecycleManager(s3Client);
+
+        LifecycleRule rule = LifecycleManager.expireByTagRule(1);
+        assertTrue(manager.mergeRules(BUCKET, List.of(rule)));
+        assertEquals(List.of(rule), s3Client.rules);
+    }
+
+    @Test
+    void mergeUnchangedRulesDoesNotWrite() {
+        LifecycleRule rule = LifecycleManager.expireByTagRule(30);
+        FakeS3Client s3Client = new FakeS3Client(List.of(rule));
+        LifecycleManager manager = new LifecycleManager(s3Client);
+
+        assertFalse(manager.mergeRules(BUCKET, List.of(LifecycleManager.expireByTagRule(30))));
+        assertEquals(0, s3Client.putCount);
+        assertEquals(1, s3Client.getCount);
+
+        // 已知桶上的规则没有变化，不再读取桶配置
+        assertFalse(manager.mergeRules(BUCKET, List.of(LifecycleManager.expireByTagRule(30))));
+        assertEquals(1, s3Client.getCount);
+    }
+
+    @Test
+    void mergeRejectsRuleWithoutId() {
+        LifecycleManager manager = new LifecycleManager(new FakeS3Client(List.of()));
+        LifecycleRule rule = LifecycleManager.expireByTagRule(30).toBuilder().id(null).build();
+
+        assertThrows(IllegalArgumentException.class, () -> manager.mergeRules(BUCKET, List.of(rule)));
+    }
+
+    /**
+     * 只实现生命周期配置读写的客户端，记录写入次数
+     */
+    private static final class FakeS3Client implements S3Client {
+
+        private List<LifecycleRule> rules;
+
+        private int getCount;
+
+        private int putCount;
+
+        FakeS3Client(List<LifecycleRule> rules) {
+            this.rules = new ArrayList<>(rules);
+        }
+
+        @Override
+        public GetBucketLifecycleConfigurationResponse getBucketLifecycleConfiguration(GetBucketLifecycleConfigurationRequest request) {
+            getCount++;
+            if (rules.isEmpty()) {
+                throw (S3Exception) S3Exception.builder().statusCode(404).awsErrorDetails(AwsErrorDetails.builder().errorCode("NoSuchLifecycleConfiguration").build()).build();
+            }
+            return GetBucketLifecycleConfigurationResponse.builder().rules(rules).build();
+        }
+
+        @Override
+        public PutBucketLifecycleConfigurationResponse putBucketLifecycleConfiguration(PutBucketLifecycleConfigurationRequest request) {
+            putCount++;
+            rules = new ArrayList<>(request.lifecycleConfiguration().rules());
+            return PutBucketLifecycleConfigurationResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
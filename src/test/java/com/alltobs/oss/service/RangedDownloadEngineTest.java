@@ -0,0 +1,87 @@
+package com.alltobs.oss.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 类 RangedDownloadEngineTest
+ * </p>
+ * 下载进度文件的解析，包括写入时中断留下的不完整行
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+class RangedDownloadEngineTest {
+
+    private static final String HEADER = "etag=\"abc\"\nsize=1000\nchunkSize=100\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsCompletedChunks() throws IOException {
+        Path stateFile = write(HEADER + "0\n3\n12\n");
+
+        assertEquals(bits(0, 3, 12), RangedDownloadEngine.readState(stateFile, "\"abc\"", 1000, 100));
+    }
+
+    @Test
+    void ignoresTornLastLine() throws IOException {
+        // "12" 只写入了 "1" 时进程退出，不能把分段 1 当作已完成
+        Path stateFile = write(HEADER + "0\n3\n1");
+
+        assertEquals(bits(0, 3), RangedDownloadEngine.readState(stateFile, "\"abc\"", 1000, 100));
+    }
+
+    @Test
+    void headerWithoutChunksResumesFromScratch() throws IOException {
+        Path stateFile = write(HEADER);
+
+        assertEquals(new BitSet(), RangedDownloadEngine.readState(stateFile, "\"abc\"", 1000, 100));
+    }
+
+    @Test
+    void tornHeaderIsDiscarded() throws IOException {
+        assertNull(RangedDownloadEngine.readState(write("etag=\"abc\"\nsize=1000\nchunk"), "\"abc\"", 1000, 100));
+        assertNull(RangedDownloadEngine.readState(write("etag=\"ab"), "\"abc\"", 1000, 100));
+    }
+
+    @Test
+    void changedObjectIsDiscarded() throws IOException {
+        Path stateFile = write(HEADER + "0\n");
+
+        assertNull(RangedDownloadEngine.readState(stateFile, "\"def\"", 1000, 100));
+        assertNull(RangedDownloadEngine.readState(stateFile, "\"abc\"", 2000, 100));
+        assertNull(RangedDownloadEngine.readState(stateFile, "\"abc\"", 1000, 200));
+    }
+
+    @Test
+    void missingOrCorruptFileIsDiscarded() throws IOException {
+        assertNull(RangedDownloadEngine.readState(directory.resolve("missing" + RangedDownloadEngine.STATE_SUFFIX), "\"abc\"", 1000, 100));
+        assertNull(RangedDownloadEngine.readState(write(HEADER + "x\n"), "\"abc\"", 1000, 100));
+    }
+
+    private Path write(String content) throws IOException {
+        Path stateFile = directory.resolve("file" + RangedDownloadEngine.STATE_SUFFIX);
+        Files.writeString(stateFile, content, StandardCharsets.UTF_8);
+        return stateFile;
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int index : indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,120 @@
+package com.alltobs.oss.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 类 AdaptiveConcurrencyLimiterTest
+ * </p>
+ * AIMD 每轮只降低一次、成功后增加上限，以及异步排队获取许可
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void backsOffOncePerGeneration() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 1, 64, 0.5);
+        long first = limiter.tryAcquire(0);
+        long second = limiter.tryAcquire(0);
+        long third = limiter.tryAcquire(0);
+
+        // 同一轮发出的请求同时被限流，只降低一次
+        limiter.throttled(first);
+        limiter.throttled(second);
+        limiter.throttled(third);
+        assertEquals(8, limiter.limit());
+        assertEquals(first + 1, limiter.generation());
+
+        // 降低之后获取的许可属于新一轮，再被限流时继续降低
+        long next = limiter.tryAcquire(0);
+        limiter.throttled(next);
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void backoffStopsAtMinLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 64, 0.5);
+        for (int i = 0; i < 5; i++) {
+            long generation = limiter.tryAcquire(0);
+            limiter.throttled(generation);
+            limiter.release(generation, false);
+        }
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void successFromOldGenerationDoesNotIncreaseLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 64, 0.5);
+        long stale = limiter.tryAcquire(0);
+        long throttled = limiter.tryAcquire(0);
+        limiter.throttled(throttled);
+        limiter.release(throttled, false);
+
+        limiter.release(stale, true);
+        assertEquals(1, limiter.limit());
+    }
+
+    @Test
+    void successIncreasesLimitOnlyWhenBusy() throws InterruptedException {
+        AdaptiveConcurrencyLimiter busy = new AdaptiveConcurrencyLimiter(1, 1, 64, 0.5);
+        busy.release(busy.tryAcquire(0), true);
+        assertEquals(2, busy.limit());
+        assertEquals(0, busy.inFlight());
+
+        // 只用了上限的八分之一，成功也不增加
+        AdaptiveConcurrencyLimiter idle = new AdaptiveConcurrencyLimiter(8, 1, 64, 0.5);
+        idle.release(idle.tryAcquire(0), true);
+        assertEquals(8, idle.limit());
+    }
+
+    @Test
+    void tryAcquireTimesOutWhenFull() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5);
+        limiter.tryAcquire(0);
+        assertEquals(-1, limiter.tryAcquire(TimeUnit.MILLISECONDS.toNanos(20)));
+        assertEquals(1, limiter.inFlight());
+    }
+
+    @Test
+    void asyncWaiterIsCompletedByRelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5);
+        CompletableFuture<Long> first = limiter.acquireAsync(TimeUnit.SECONDS.toNanos(5), scheduler);
+        CompletableFuture<Long> second = limiter.acquireAsync(TimeUnit.SECONDS.toNanos(5), scheduler);
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        limiter.release(first.get(), true);
+        assertEquals(limiter.generation(), second.get(1, TimeUnit.SECONDS));
+        assertEquals(1, limiter.inFlight());
+    }
+
+    @Test
+    void asyncWaiterTimesOutWithoutTakingPermit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5);
+        long generation = limiter.acquireAsync(0, scheduler).get();
+        CompletableFuture<Long> waiter = limiter.acquireAsync(TimeUnit.MILLISECONDS.toNanos(20), scheduler);
+
+        assertEquals(-1L, waiter.get(1, TimeUnit.SECONDS));
+        limiter.release(generation, true);
+        assertEquals(0, limiter.inFlight());
+    }
+}
@@ -0,0 +1,88 @@
+package com.alltobs.oss.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 类 TokenBucketTest
+ * </p>
+ * 令牌补充和预约等待时间
+ *
+ * @author ChenQi
+ * &#064;date  2026/10/16
+ * @since 1.0.6
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void burstIsAvailableWithoutWaiting() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.reserve(0));
+        }
+        assertEquals(-1, bucket.reserve(0));
+    }
+
+    @Test
+    void reservationsQueueBehindEachOther() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        assertEquals(0, bucket.reserve(SECOND));
+
+        // 每 100ms 补充一个令牌，已预约的令牌排在前面
+        long first = bucket.reserve(SECOND);
+        long second = bucket.reserve(SECOND);
+        assertTrue(first > 50 * MILLIS && first <= 101 * MILLIS, "first wait " + first);
+        assertTrue(second - first > 90 * MILLIS && second - first <= 101 * MILLIS, "second wait " + second);
+    }
+
+    @Test
+    void rejectedReservationDoesNotConsumeToken() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        assertEquals(0, bucket.reserve(0));
+
+        assertEquals(-1, bucket.reserve(10 * MILLIS));
+        long wait = bucket.reserve(SECOND);
+        assertTrue(wait > 50 * MILLIS && wait <= 101 * MILLIS, "wait " + wait);
+    }
+
+    @Test
+    void tokensRefillOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 1);
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(-1, bucket.reserve(0));
+
+        TimeUnit.MILLISECONDS.sleep(30);
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    @Test
+    void refillIsCappedAtBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 2);
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+
+        // 50ms 可以补充 50 个令牌，但桶里最多 2 个
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+        assertTrue(bucket.reserve(SECOND) > 0);
+    }
+
+    @Test
+    void tryAcquireSleepsForReservedWait() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 1);
+        assertTrue(bucket.tryAcquire(0));
+
+        long start = System.nanoTime();
+        assertTrue(bucket.tryAcquire(SECOND));
+        assertTrue(System.nanoTime() - start >= 40 * MILLIS);
+    }
+}